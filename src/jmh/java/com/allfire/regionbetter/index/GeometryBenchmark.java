@@ -0,0 +1,91 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.utils.BlockKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Примитивы шага игрока без WorldGuard: упаковка блока, поиск корзины чанка, проверка полигона
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeometryBenchmark {
+
+    private static final int PATH_LENGTH = 4096;
+
+    private ChunkTable<Object[]> table;
+    private Map<Long, Object[]> boxedBuckets;
+    private final int[] pointsX = {100, 160, 150, 95, 120};
+    private final int[] pointsZ = {90, 100, 160, 150, 125};
+
+    private final int[] pathX = new int[PATH_LENGTH];
+    private final int[] pathZ = new int[PATH_LENGTH];
+    private int step;
+
+    @Setup
+    public void setup() {
+        boxedBuckets = new HashMap<>();
+        for (int cx = -100; cx < 100; cx++) {
+            for (int cz = -100; cz < 100; cz++) {
+                boxedBuckets.put(RegionGeometry.chunkKey(cx, cz), new Object[]{cx, cz});
+            }
+        }
+        table = new ChunkTable<>(boxedBuckets);
+
+        int x = -1000, z = -1000;
+        for (int i = 0; i < PATH_LENGTH; i++) {
+            if (i % 3 == 2) {
+                z++;
+            } else {
+                x++;
+            }
+            pathX[i] = x;
+            pathZ[i] = z;
+        }
+    }
+
+    @Benchmark
+    public void chunkTable(Blackhole blackhole) {
+        int i = step++ & (PATH_LENGTH - 1);
+        blackhole.consume(table.get(RegionGeometry.chunkKey(pathX[i] >> 4, pathZ[i] >> 4)));
+    }
+
+    // Прежний способ: карта с ключом Long, для сравнения аллокаций
+    @Benchmark
+    public void boxedMap(Blackhole blackhole) {
+        int i = step++ & (PATH_LENGTH - 1);
+        blackhole.consume(boxedBuckets.get(RegionGeometry.chunkKey(pathX[i] >> 4, pathZ[i] >> 4)));
+    }
+
+    @Benchmark
+    public void blockKey(Blackhole blackhole) {
+        int i = step++ & (PATH_LENGTH - 1);
+        long key = BlockKeys.pack(pathX[i], 64, pathZ[i]);
+        blackhole.consume(BlockKeys.distance(key, BlockKeys.pack(0, 64, 0)));
+    }
+
+    @Benchmark
+    public void polygon(Blackhole blackhole) {
+        int i = step++ & (PATH_LENGTH - 1);
+        int x = 100 + (pathX[i] & 63), z = 100 + (pathZ[i] & 63);
+        blackhole.consume(RegionGeometry.polygonContains(pointsX, pointsZ, x, z));
+        blackhole.consume(RegionGeometry.edgeDistance(pointsX, pointsZ, x, z));
+    }
+}
@@ -0,0 +1,127 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.utils.BlockKeys;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Работа RegionTracker.checkPosition над индексами на каждом проверяемом шаге игрока:
+ * регионы с флагом в буфер игрока, безопасный радиус и регион для заполнителей
+ * Полный путь трекера с проходом по отрезку - TrackerBenchmark
+ * Запуск: mvn -Pjmh test-compile exec:exec (с -prof gc, ожидается gc.alloc.rate.norm около 0 B/op)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionLookupBenchmark {
+
+    private static final String WORLD_NAME = "benchmark";
+    private static final int PATH_LENGTH = 4096;
+
+    private ViewRegionIndex viewIndex;
+    private RegionSpatialIndex spatialIndex;
+    private World world;
+
+    // Путь игрока: шаг в один блок по городам и участкам
+    private final int[] pathX = new int[PATH_LENGTH];
+    private final int[] pathZ = new int[PATH_LENGTH];
+    private int step;
+
+    private final ViewRegionIndex.ViewRegion[] buffer = new ViewRegionIndex.ViewRegion[16];
+
+    @Setup
+    public void setup() {
+        List<ProtectedRegion> regions = new ArrayList<>();
+        // 10x10 городов по 256 блоков, в каждом 8x8 участков 24x24 и один полигон
+        for (int townX = 0; townX < 10; townX++) {
+            for (int townZ = 0; townZ < 10; townZ++) {
+                int baseX = townX * 256, baseZ = townZ * 256;
+                ProtectedRegion town = cuboid("town_" + townX + "_" + townZ, baseX, baseZ, baseX + 255, baseZ + 255);
+                town.setPriority(0);
+                regions.add(town);
+
+                for (int plotX = 0; plotX < 8; plotX++) {
+                    for (int plotZ = 0; plotZ < 8; plotZ++) {
+                        int x = baseX + 8 + plotX * 30, z = baseZ + 8 + plotZ * 30;
+                        ProtectedRegion plot = cuboid("plot_" + townX + "_" + townZ + "_" + plotX + "_" + plotZ, x, z, x + 23, z + 23);
+                        plot.setPriority(10);
+                        regions.add(plot);
+                    }
+                }
+
+                regions.add(new ProtectedPolygonalRegion("square_" + townX + "_" + townZ, List.of(
+                    BlockVector2.at(baseX + 100, baseZ + 90), BlockVector2.at(baseX + 160, baseZ + 100),
+                    BlockVector2.at(baseX + 150, baseZ + 160), BlockVector2.at(baseX + 95, baseZ + 150)
+                ), 0, 255));
+            }
+        }
+
+        viewIndex = new ViewRegionIndex(null);
+        viewIndex.load(WORLD_NAME, regions);
+        spatialIndex = new RegionSpatialIndex(null);
+        spatialIndex.load(WORLD_NAME, regions);
+
+        world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getName" -> WORLD_NAME;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+        int x = 5, z = 5;
+        for (int i = 0; i < PATH_LENGTH; i++) {
+            if (i % 3 == 2) {
+                z++;
+            } else {
+                x++;
+            }
+            pathX[i] = x;
+            pathZ[i] = z;
+        }
+    }
+
+    @Benchmark
+    public void checkPosition(Blackhole blackhole) {
+        int i = step++ & (PATH_LENGTH - 1);
+        int x = pathX[i], y = 64, z = pathZ[i];
+
+        blackhole.consume(BlockKeys.pack(x, y, z));
+        blackhole.consume(viewIndex.getRegions(world, x, y, z, buffer));
+        blackhole.consume(viewIndex.getSafeRadius(world, x, y, z));
+        blackhole.consume(spatialIndex.getHighestRegion(world, x, y, z));
+    }
+
+    @Benchmark
+    public void chunkLookup(Blackhole blackhole) {
+        int i = step++ & (PATH_LENGTH - 1);
+        blackhole.consume(viewIndex.getRegions(world, pathX[i], 64, pathZ[i], buffer));
+    }
+
+    private static ProtectedRegion cuboid(String id, int minX, int minZ, int maxX, int maxZ) {
+        return new ProtectedCuboidRegion(id, BlockVector3.at(minX, 0, minZ), BlockVector3.at(maxX, 255, maxZ));
+    }
+}
@@ -0,0 +1,177 @@
+package com.allfire.regionbetter.managers;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.allfire.regionbetter.config.ConfigManager;
+import com.allfire.regionbetter.config.ConfigSnapshot;
+import com.allfire.regionbetter.index.RegionSpatialIndex;
+import com.allfire.regionbetter.index.ViewRegionIndex;
+import com.allfire.regionbetter.placeholders.PlaceholderCache;
+import com.allfire.regionbetter.utils.CooldownService;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * RegionTracker.handleMove целиком на каждом шаге игрока: бюджеты, регион для заполнителей,
+ * регионы с флагом в буфер игрока, разность множеств и проход по отрезку от прошлой проверки
+ * Игрок идет шагами по 6 блоков вдоль просвета между участками с флагом: каждый шаг проверяется,
+ * проход обходит чанки с участками, но не входит в них, поэтому команды входа и выхода не срабатывают
+ * Плагин собирается без сервера: поля RegionBetter заполняются через рефлексию
+ * Запуск: см. README, раздел о бенчмарках (ожидается gc.alloc.rate.norm около 0 B/op)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrackerBenchmark {
+
+    private static final String WORLD_NAME = "benchmark";
+    private static final int STEP = 6;
+
+    private RegionTracker tracker;
+    private CooldownService cooldowns;
+    private VarHandle currentTick;
+    private Player player;
+
+    // Точки пути создаются заранее, чтобы бенчмарк не выделял Location
+    private Location[] path;
+    private int step;
+    private long tick;
+
+    @Setup
+    public void setup() throws Exception {
+        RegionBetter plugin = allocate(RegionBetter.class);
+
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("RegionViewSettings.CheckPerms", false);
+        config.set("RegionViewSettings.Cooldown", 0);
+        ConfigManager configManager = new ConfigManager(plugin);
+        set(configManager, "snapshot", ConfigSnapshot.compile(config, Logger.getLogger(WORLD_NAME)));
+
+        // 8x8 участков 24x24 с флагом в городе 256x256 без флага
+        List<ProtectedRegion> plots = new ArrayList<>();
+        List<ProtectedRegion> all = new ArrayList<>();
+        all.add(cuboid("town", 0, 0, 255, 255));
+        for (int plotX = 0; plotX < 8; plotX++) {
+            for (int plotZ = 0; plotZ < 8; plotZ++) {
+                int x = 8 + plotX * 30, z = 8 + plotZ * 30;
+                ProtectedRegion plot = cuboid("plot_" + plotX + "_" + plotZ, x, z, x + 23, z + 23);
+                plot.setPriority(10);
+                plots.add(plot);
+                all.add(plot);
+            }
+        }
+
+        ViewRegionIndex viewIndex = new ViewRegionIndex(plugin);
+        load(viewIndex, plots);
+        RegionSpatialIndex spatialIndex = new RegionSpatialIndex(plugin);
+        load(spatialIndex, all);
+
+        cooldowns = new CooldownService(plugin);
+        currentTick = MethodHandles.privateLookupIn(CooldownService.class, MethodHandles.lookup())
+            .findVarHandle(CooldownService.class, "currentTick", long.class);
+
+        set(plugin, "configManager", configManager);
+        set(plugin, "viewRegionIndex", viewIndex);
+        set(plugin, "spatialIndex", spatialIndex);
+        set(plugin, "cooldownService", cooldowns);
+        set(plugin, "placeholderCache", new PlaceholderCache(plugin));
+        tracker = new RegionTracker(plugin);
+
+        UUID worldId = UUID.randomUUID();
+        World world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getName" -> WORLD_NAME;
+                case "getUID" -> worldId;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+        UUID playerId = UUID.randomUUID();
+        player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUniqueId" -> playerId;
+                case "getName" -> "benchmark";
+                case "hasPermission" -> true;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+        // Просвет между первым и вторым рядом участков: z = 34, участки на 3 блока в стороне
+        List<Location> points = new ArrayList<>();
+        for (int x = 2; x < 250; x += STEP) {
+            points.add(new Location(world, x + 0.5, 64, 34.5));
+        }
+        path = points.toArray(new Location[0]);
+    }
+
+    @Benchmark
+    public void handleMove() {
+        Location from = path[step];
+        step = (step + 1) % path.length;
+        Location to = path[step];
+
+        // Проверки не чаще раза в 2 тика: каждый шаг идет в новом тике
+        tick += 2;
+        currentTick.setVolatile(cooldowns, tick);
+
+        tracker.handleMove(player, from, to);
+    }
+
+    private static ProtectedRegion cuboid(String id, int minX, int minZ, int maxX, int maxZ) {
+        return new ProtectedCuboidRegion(id, BlockVector3.at(minX, 0, minZ), BlockVector3.at(maxX, 255, maxZ));
+    }
+
+    // ChunkRegionIndex.load - пакетный метод index, без обращения к WorldGuard
+    private static void load(Object index, List<ProtectedRegion> regions) throws Exception {
+        Method load = Class.forName("com.allfire.regionbetter.index.ChunkRegionIndex")
+            .getDeclaredMethod("load", String.class, Collection.class);
+        load.setAccessible(true);
+        load.invoke(index, WORLD_NAME, regions);
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    // JavaPlugin нельзя создать вне сервера: экземпляр выделяется без конструктора
+    @SuppressWarnings("unchecked")
+    private static <T> T allocate(Class<T> type) throws Exception {
+        Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        Object unsafe = field.get(null);
+        return (T) unsafe.getClass().getMethod("allocateInstance", Class.class).invoke(unsafe, type);
+    }
+}
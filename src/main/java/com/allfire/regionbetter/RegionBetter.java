@@ -3,10 +3,29 @@ package com.allfire.regionbetter;
 import com.allfire.regionbetter.commands.RegionCommand;
 import com.allfire.regionbetter.config.ConfigManager;
 import com.allfire.regionbetter.flags.RegionBetterViewFlag;
+import com.allfire.regionbetter.index.NearestRegionIndex;
+import com.allfire.regionbetter.index.RegionIndexReconciler;
+import com.allfire.regionbetter.index.RegionNameIndex;
+import com.allfire.regionbetter.index.RegionOwnershipIndex;
+import com.allfire.regionbetter.index.RegionSpatialIndex;
+import com.allfire.regionbetter.index.ViewRegionIndex;
+import com.allfire.regionbetter.listeners.LuckPermsListener;
+import com.allfire.regionbetter.listeners.PaperTabCompleteListener;
 import com.allfire.regionbetter.listeners.PlayerListener;
+import com.allfire.regionbetter.listeners.WorldGuardChangeListener;
+import com.allfire.regionbetter.managers.LimitManager;
 import com.allfire.regionbetter.managers.RegionBetterManager;
+import com.allfire.regionbetter.managers.RegionCreationPipeline;
+import com.allfire.regionbetter.managers.RegionSaveScheduler;
+import com.allfire.regionbetter.managers.RegionTracker;
 import com.allfire.regionbetter.managers.SelectionManager;
+import com.allfire.regionbetter.placeholders.PlaceholderCache;
 import com.allfire.regionbetter.placeholders.RegionBetterPlaceholders;
+import com.allfire.regionbetter.utils.CommandTrigger;
+import com.allfire.regionbetter.utils.CooldownService;
+import com.allfire.regionbetter.utils.PlayerNameCache;
+import com.allfire.regionbetter.utils.RegionFlagRenderer;
+import com.allfire.regionbetter.utils.TriggerTimeline;
 import com.allfire.regionbetter.utils.WorldEditUtils;
 import com.allfire.regionbetter.utils.ColorUtils;
 import com.sk89q.worldguard.WorldGuard;
@@ -17,7 +36,23 @@ public class RegionBetter extends JavaPlugin {
     private static RegionBetter instance;
     private ConfigManager configManager;
     private RegionBetterManager regionManager;
+    private RegionSaveScheduler saveScheduler;
+    private RegionCreationPipeline creationPipeline;
     private SelectionManager selectionManager;
+    private LimitManager limitManager;
+    private RegionOwnershipIndex ownershipIndex;
+    private ViewRegionIndex viewRegionIndex;
+    private RegionSpatialIndex spatialIndex;
+    private RegionNameIndex nameIndex;
+    private NearestRegionIndex nearestRegionIndex;
+    private RegionIndexReconciler indexReconciler;
+    private RegionTracker regionTracker;
+    private TriggerTimeline triggerTimeline;
+    private CooldownService cooldownService;
+    private CommandTrigger commandTrigger;
+    private PlayerNameCache nameCache;
+    private RegionFlagRenderer flagRenderer;
+    private PlaceholderCache placeholderCache;
     private WorldEditUtils worldEditUtils;
     private RegionBetterViewFlag regionBetterViewFlag;
 
@@ -40,7 +75,22 @@ public class RegionBetter extends JavaPlugin {
         // Инициализация менеджеров
         this.configManager = new ConfigManager(this);
         this.regionManager = new RegionBetterManager(this);
+        this.saveScheduler = new RegionSaveScheduler(this);
+        this.creationPipeline = new RegionCreationPipeline(this);
         this.selectionManager = new SelectionManager(this);
+        this.limitManager = new LimitManager(this);
+        this.ownershipIndex = new RegionOwnershipIndex(this);
+        this.viewRegionIndex = new ViewRegionIndex(this);
+        this.spatialIndex = new RegionSpatialIndex(this);
+        this.nameIndex = new RegionNameIndex(this);
+        this.nearestRegionIndex = new NearestRegionIndex(this);
+        this.indexReconciler = new RegionIndexReconciler(this);
+        this.regionTracker = new RegionTracker(this);
+        this.triggerTimeline = new TriggerTimeline(this);
+        this.cooldownService = new CooldownService(this);
+        this.commandTrigger = new CommandTrigger(this);
+        this.flagRenderer = new RegionFlagRenderer(this);
+        this.placeholderCache = new PlaceholderCache(this);
         this.worldEditUtils = new WorldEditUtils(this);
         
         // Устанавливаем WorldEditUtils в SelectionManager
@@ -49,8 +99,23 @@ public class RegionBetter extends JavaPlugin {
         // Загрузка конфигурации
         configManager.loadConfig();
 
+        // Кэш имен игроков для info и управления участниками
+        this.nameCache = new PlayerNameCache(this);
+        nameCache.load();
+        nameCache.startSaveTask();
+
+        // Периодическая сверка индексов с WorldGuard
+        indexReconciler.start();
+
+        // Запуск отслеживания входа/выхода из регионов
+        regionTracker.start();
+
+        // Счетчик тиков и очистка кулдаунов триггеров
+        cooldownService.start();
+
         // Регистрация команд
-        getCommand("region").setExecutor(new RegionCommand(this));
+        RegionCommand regionCommand = new RegionCommand(this);
+        getCommand("region").setExecutor(regionCommand);
         
         // Переопределение команд WorldGuard
         // overrideWorldGuardCommands(); // Отключено - возвращаем команды WorldGuard
@@ -58,6 +123,24 @@ public class RegionBetter extends JavaPlugin {
         // Регистрация событий
         getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
 
+        // Обновление индексов после изменений регионов через команды и API WorldGuard
+        getServer().getPluginManager().registerEvents(new WorldGuardChangeListener(this), this);
+
+        // Асинхронное автодополнение названий регионов на Paper
+        if (isPaperAsyncTabCompleteAvailable()) {
+            getServer().getPluginManager().registerEvents(new PaperTabCompleteListener(this, regionCommand), this);
+        }
+
+        // Сброс кэша лимитов при пересчете прав LuckPerms
+        if (getServer().getPluginManager().getPlugin("LuckPerms") != null) {
+            try {
+                new LuckPermsListener(this).register();
+                getLogger().info("LuckPerms подключен для отслеживания лимитов!");
+            } catch (Exception e) {
+                getLogger().warning("Не удалось подписаться на события LuckPerms: " + e.getMessage());
+            }
+        }
+
         // Регистрация PlaceholderAPI
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
             new RegionBetterPlaceholders(this).register();
@@ -71,6 +154,23 @@ public class RegionBetter extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (indexReconciler != null) {
+            indexReconciler.stop();
+        }
+        if (regionTracker != null) {
+            regionTracker.stop();
+        }
+        if (cooldownService != null) {
+            cooldownService.stop();
+        }
+        // Сохраняем все отложенные изменения регионов
+        if (saveScheduler != null) {
+            saveScheduler.flushNow();
+        }
+        if (nameCache != null) {
+            nameCache.stopSaveTask();
+            nameCache.save();
+        }
         getLogger().info("RegionBetter отключен!");
     }
 
@@ -86,10 +186,58 @@ public class RegionBetter extends JavaPlugin {
         return regionManager;
     }
 
+    public RegionSaveScheduler getSaveScheduler() {
+        return saveScheduler;
+    }
+
+    public RegionCreationPipeline getCreationPipeline() {
+        return creationPipeline;
+    }
+
     public SelectionManager getSelectionManager() {
         return selectionManager;
     }
     
+    public LimitManager getLimitManager() {
+        return limitManager;
+    }
+    
+    public RegionOwnershipIndex getOwnershipIndex() {
+        return ownershipIndex;
+    }
+    
+    public ViewRegionIndex getViewRegionIndex() {
+        return viewRegionIndex;
+    }
+    
+    public RegionSpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+    
+    public RegionNameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    public NearestRegionIndex getNearestRegionIndex() {
+        return nearestRegionIndex;
+    }
+
+    public RegionIndexReconciler getIndexReconciler() {
+        return indexReconciler;
+    }
+    
+    public RegionTracker getRegionTracker() {
+        return regionTracker;
+    }
+    
+    public TriggerTimeline getTriggerTimeline() {
+        return triggerTimeline;
+    }
+    
+    public CooldownService getCooldownService() {
+        return cooldownService;
+    }
+    
     public WorldEditUtils getWorldEditUtils() {
         return worldEditUtils;
     }
@@ -98,8 +246,29 @@ public class RegionBetter extends JavaPlugin {
         return regionBetterViewFlag;
     }
     
-    public com.allfire.regionbetter.utils.CommandTrigger getCommandTrigger() {
-        return new com.allfire.regionbetter.utils.CommandTrigger(this);
+    public PlayerNameCache getNameCache() {
+        return nameCache;
+    }
+    
+    public RegionFlagRenderer getFlagRenderer() {
+        return flagRenderer;
+    }
+
+    public PlaceholderCache getPlaceholderCache() {
+        return placeholderCache;
+    }
+    
+    public CommandTrigger getCommandTrigger() {
+        return commandTrigger;
+    }
+    
+    private boolean isPaperAsyncTabCompleteAvailable() {
+        try {
+            Class.forName("com.destroystokyo.paper.event.server.AsyncTabCompleteEvent");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
     }
     
     /**
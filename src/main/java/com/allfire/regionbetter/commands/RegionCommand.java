@@ -4,11 +4,6 @@ import com.allfire.regionbetter.RegionBetter;
 import com.allfire.regionbetter.managers.SelectionManager.SelectionData;
 import com.allfire.regionbetter.utils.CommandTrigger;
 import com.allfire.regionbetter.utils.ColorUtils;
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.managers.RegionManager;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
-import com.sk89q.worldguard.protection.regions.RegionContainer;
 import org.bukkit.Location;
 import org.bukkit.util.Vector;
 import org.bukkit.command.Command;
@@ -28,7 +23,7 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
 
     public RegionCommand(RegionBetter plugin) {
         this.plugin = plugin;
-        this.commandTrigger = new CommandTrigger(plugin);
+        this.commandTrigger = plugin.getCommandTrigger();
     }
 
     @Override
@@ -157,13 +152,13 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
 
         String regionName = args[1];
         String targetPlayer = args[2];
-        boolean success = plugin.getRegionManager().addOwner(player, regionName, targetPlayer);
-
-        if (success) {
-            commandTrigger.executeCommandsWithDelay(player, "RegionAddOwnerSuccess", new String[]{regionName, targetPlayer});
-        } else {
-            commandTrigger.executeCommandsWithDelay(player, "RegionAddOwnerError", new String[]{regionName, targetPlayer});
-        }
+        plugin.getRegionManager().addOwner(player, regionName, targetPlayer, success -> {
+            if (success) {
+                commandTrigger.executeCommandsWithDelay(player, "RegionAddOwnerSuccess", new String[]{regionName, targetPlayer});
+            } else {
+                commandTrigger.executeCommandsWithDelay(player, "RegionAddOwnerError", new String[]{regionName, targetPlayer});
+            }
+        });
     }
 
     private void handleAddMember(Player player, String[] args) {
@@ -174,13 +169,13 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
 
         String regionName = args[1];
         String targetPlayer = args[2];
-        boolean success = plugin.getRegionManager().addMember(player, regionName, targetPlayer);
-
-        if (success) {
-            commandTrigger.executeCommandsWithDelay(player, "RegionAddMemberSuccess", new String[]{regionName, targetPlayer});
-        } else {
-            commandTrigger.executeCommandsWithDelay(player, "RegionAddMemberError", new String[]{regionName, targetPlayer});
-        }
+        plugin.getRegionManager().addMember(player, regionName, targetPlayer, success -> {
+            if (success) {
+                commandTrigger.executeCommandsWithDelay(player, "RegionAddMemberSuccess", new String[]{regionName, targetPlayer});
+            } else {
+                commandTrigger.executeCommandsWithDelay(player, "RegionAddMemberError", new String[]{regionName, targetPlayer});
+            }
+        });
     }
 
     private void handleRemoveOwner(Player player, String[] args) {
@@ -191,13 +186,13 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
 
         String regionName = args[1];
         String targetPlayer = args[2];
-        boolean success = plugin.getRegionManager().removeOwner(player, regionName, targetPlayer);
-
-        if (success) {
-            commandTrigger.executeCommandsWithDelay(player, "RegionRemoveOwnerSuccess", new String[]{regionName, targetPlayer});
-        } else {
-            commandTrigger.executeCommandsWithDelay(player, "RegionRemoveOwnerError", new String[]{regionName, targetPlayer});
-        }
+        plugin.getRegionManager().removeOwner(player, regionName, targetPlayer, success -> {
+            if (success) {
+                commandTrigger.executeCommandsWithDelay(player, "RegionRemoveOwnerSuccess", new String[]{regionName, targetPlayer});
+            } else {
+                commandTrigger.executeCommandsWithDelay(player, "RegionRemoveOwnerError", new String[]{regionName, targetPlayer});
+            }
+        });
     }
 
     private void handleRemoveMember(Player player, String[] args) {
@@ -208,13 +203,13 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
 
         String regionName = args[1];
         String targetPlayer = args[2];
-        boolean success = plugin.getRegionManager().removeMember(player, regionName, targetPlayer);
-
-        if (success) {
-            commandTrigger.executeCommandsWithDelay(player, "RegionRemoveMemberSuccess", new String[]{regionName, targetPlayer});
-        } else {
-            commandTrigger.executeCommandsWithDelay(player, "RegionRemoveMemberError", new String[]{regionName, targetPlayer});
-        }
+        plugin.getRegionManager().removeMember(player, regionName, targetPlayer, success -> {
+            if (success) {
+                commandTrigger.executeCommandsWithDelay(player, "RegionRemoveMemberSuccess", new String[]{regionName, targetPlayer});
+            } else {
+                commandTrigger.executeCommandsWithDelay(player, "RegionRemoveMemberError", new String[]{regionName, targetPlayer});
+            }
+        });
     }
 
     private void handleInfo(Player player, String[] args) {
@@ -227,23 +222,29 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
         var regionInfo = plugin.getRegionManager().getRegionDetailedInfo(player, regionName);
 
         if (regionInfo != null) {
-            // Подготавливаем аргументы для триггеров
-            String[] triggerArgs = {
-                regionName,
-                regionInfo.getOwners(),
-                regionInfo.getMembers(),
-                regionInfo.getFlags(),
-                regionInfo.getPos1(),
-                regionInfo.getPos2()
-            };
-            
-            if (regionInfo.isOwner()) {
-                commandTrigger.executeCommandsWithDelay(player, "RegionInfoOwner", triggerArgs);
-            } else if (regionInfo.isMember()) {
-                commandTrigger.executeCommandsWithDelay(player, "RegionInfoMember", triggerArgs);
-            } else {
-                commandTrigger.executeCommandsWithDelay(player, "RegionInfoPublic", triggerArgs);
-            }
+            // Имена владельцев и участников разрешаются асинхронно, затем вывод продолжается
+            plugin.getNameCache().resolveNames(regionInfo.getPlayerIds(), () -> {
+                if (!player.isOnline()) {
+                    return;
+                }
+                // Подготавливаем аргументы для триггеров
+                String[] triggerArgs = {
+                    regionName,
+                    regionInfo.getOwners(),
+                    regionInfo.getMembers(),
+                    regionInfo.getFlags(),
+                    regionInfo.getPos1(),
+                    regionInfo.getPos2()
+                };
+                
+                if (regionInfo.isOwner()) {
+                    commandTrigger.executeCommandsWithDelay(player, "RegionInfoOwner", triggerArgs);
+                } else if (regionInfo.isMember()) {
+                    commandTrigger.executeCommandsWithDelay(player, "RegionInfoMember", triggerArgs);
+                } else {
+                    commandTrigger.executeCommandsWithDelay(player, "RegionInfoPublic", triggerArgs);
+                }
+            });
         } else {
             commandTrigger.executeCommandsWithDelay(player, "RegionInfoNotFound", new String[]{regionName});
         }
@@ -258,9 +259,9 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
         if (plugin.getSelectionManager().hasSelection(player)) {
             commandTrigger.executeCommandsWithDelay(player, "RegionBetterComplete", new String[]{});
             // Добавляем игрока в ожидание названия региона
-            SelectionData selectionData = new SelectionData(player, "create");
-            selectionData.setPos1(plugin.getSelectionManager().getPos1(player));
-            selectionData.setPos2(plugin.getSelectionManager().getPos2(player));
+            SelectionData selectionData = new SelectionData("create");
+            selectionData.markPos1();
+            selectionData.markPos2();
             plugin.getSelectionManager().setWaitingForName(player, selectionData);
             return;
         }
@@ -376,10 +377,12 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
         if (player.hasPermission("regionbetter.region.view")) {
             // У игрока есть право - забираем его
             player.addAttachment(plugin, "regionbetter.region.view", false);
+            plugin.getPlaceholderCache().invalidate(player.getUniqueId());
             commandTrigger.executeCommandsWithDelay(player, "RegionViewDisabled", new String[]{});
         } else {
             // У игрока нет права - выдаем его
             player.addAttachment(plugin, "regionbetter.region.view", true);
+            plugin.getPlaceholderCache().invalidate(player.getUniqueId());
             commandTrigger.executeCommandsWithDelay(player, "RegionViewEnabled", new String[]{});
         }
     }
@@ -391,6 +394,9 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
         }
 
         plugin.getConfigManager().reloadConfig();
+        plugin.getRegionTracker().restart();
+        plugin.getFlagRenderer().clear();
+        plugin.getPlaceholderCache().invalidateAll();
         commandTrigger.executeCommandsWithDelay(player, "RegionReload", new String[]{});
     }
 
@@ -428,12 +434,9 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
                 case "removeowner":
                 case "removemember":
                 case "info":
-                    // Добавляем все регионы для команды info
-                    completions.addAll(getAllRegionsForInfo((Player) sender));
-                    break;
                 case "glow":
-                    // Добавляем все регионы для команды glow (кроме исключений)
-                    completions.addAll(getAllRegionsForGlow((Player) sender));
+                    // Только регионы с введенным префиксом, без исключений
+                    completions.addAll(completeRegionNames((Player) sender, subCommand, args[1]));
                     break;
                 case "select":
                     List<String> selectOptions = Arrays.asList("1", "2", "clear", "move", "size", "glow");
@@ -461,61 +464,21 @@ public class RegionCommand implements CommandExecutor, TabCompleter {
     }
     
     /**
-     * Получает все регионы для команды glow (кроме исключений и __global__)
+     * Названия регионов мира игрока для автодополнения
+     * Для glow исключаются RegionTabGlow, для остальных команд - RegionTabInfo
+     * Вызывается и из асинхронного автодополнения Paper
      */
-    private List<String> getAllRegionsForGlow(Player player) {
-        List<String> regions = new ArrayList<>();
-        
+    public List<String> completeRegionNames(Player player, String subCommand, String prefix) {
         try {
-            // Получаем все регионы в мире игрока
-            RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
-            RegionManager regionManager = container.get(BukkitAdapter.adapt(player.getWorld()));
-            
-            if (regionManager != null) {
-                // Получаем список исключений из конфигурации
-                List<String> excludedRegions = plugin.getConfigManager().getConfig().getStringList("RegionTabGlow");
-                excludedRegions.add("__global__"); // Всегда исключаем глобальный регион
-                
-                for (ProtectedRegion region : regionManager.getRegions().values()) {
-                    String regionName = region.getId();
-                    
-                    // Исключаем __global__ и регионы из списка исключений
-                    if (!excludedRegions.contains(regionName)) {
-                        regions.add(regionName);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Ошибка при получении списка регионов для glow: " + e.getMessage());
-        }
-        
-        return regions;
-    }
-    
-    /**
-     * Получает все регионы для команды info (все регионы в мире, кроме исключений)
-     */
-    private List<String> getAllRegionsForInfo(Player player) {
-        List<String> regions = new ArrayList<>();
-        
-        try {
-            // Получаем все регионы в мире игрока
-            var worldRegions = plugin.getRegionManager().getAllRegionsInWorld(player.getWorld());
-            regions.addAll(worldRegions);
-            
-            // Исключаем __global__ регион
-            regions.remove("__global__");
-            
-            // Исключаем регионы из конфигурации RegionTabInfo
-            List<String> excludedRegions = plugin.getConfigManager().getConfig().getStringList("RegionTabInfo");
-            for (String excludedRegion : excludedRegions) {
-                regions.remove(excludedRegion);
-            }
-            
+            var snapshot = plugin.getConfigManager().getSnapshot();
+            var excludedRegions = subCommand.equals("glow")
+                ? snapshot.validation().tabGlowExclusions()
+                : snapshot.validation().tabInfoExclusions();
+
+            return plugin.getNameIndex().complete(player.getWorld(), prefix, excludedRegions, snapshot.tabCompleteLimit());
         } catch (Exception e) {
-            plugin.getLogger().warning("Ошибка при получении списка регионов для info: " + e.getMessage());
+            plugin.getLogger().warning("Ошибка при получении списка регионов для автодополнения: " + e.getMessage());
+            return new ArrayList<>();
         }
-        
-        return regions;
     }
-}
\ No newline at end of file
+}
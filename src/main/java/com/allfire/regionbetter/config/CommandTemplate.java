@@ -0,0 +1,212 @@
+package com.allfire.regionbetter.config;
+
+import com.allfire.regionbetter.utils.ColorUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Строка команды триггера, разобранная при загрузке конфигурации:
+ * тип действия, литеральные сегменты с уже переведенными цветами и слоты заполнителей
+ */
+public final class CommandTemplate {
+
+    /**
+     * Тип действия по префиксу строки
+     */
+    public enum ActionType {
+        PLAYER("asPlayer!"),
+        PLAYER_FORCE("asPlayerForce!"),
+        CONSOLE("asConsole!"),
+        MESSAGE("msg!"),
+        DELAY("delay!"),
+        UNKNOWN("");
+
+        private final String prefix;
+
+        ActionType(String prefix) {
+            this.prefix = prefix;
+        }
+
+        static ActionType of(String command) {
+            for (ActionType type : values()) {
+                if (type != UNKNOWN && command.startsWith(type.prefix)) {
+                    return type;
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+
+    // Индексы специальных слотов
+    private static final int SLOT_BLOCKS = -1;
+
+    private final ActionType type;
+    private final String source;
+    private final String[] literals;
+    private final Slot[] slots;
+    private final boolean usesPlaceholderApi;
+    private final int delayTicks;
+
+    private CommandTemplate(ActionType type, String source, String[] literals, Slot[] slots, boolean usesPlaceholderApi, int delayTicks) {
+        this.type = type;
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.usesPlaceholderApi = usesPlaceholderApi;
+        this.delayTicks = delayTicks;
+    }
+
+    /**
+     * Слот заполнителя: индекс аргумента и текст, если аргумента нет
+     */
+    private record Slot(int index, String fallback) {}
+
+    /**
+     * Разбирает строку команды из конфигурации
+     * Возвращает null для пустых строк
+     */
+    public static CommandTemplate compile(String command) {
+        if (command == null || command.trim().isEmpty()) {
+            return null;
+        }
+
+        ActionType type = ActionType.of(command);
+
+        if (type == ActionType.DELAY) {
+            int delay;
+            try {
+                delay = Integer.parseInt(command.substring(type.prefix.length()).trim());
+            } catch (NumberFormatException e) {
+                delay = -1; // Отмечаем как неверный формат
+            }
+            return new CommandTemplate(type, command, new String[]{""}, new Slot[0], false, delay);
+        }
+
+        String body = command.substring(type.prefix.length()).trim();
+
+        List<String> literals = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < body.length()) {
+            char c = body.charAt(i);
+            if (c == '{') {
+                int end = body.indexOf('}', i + 1);
+                if (end > i) {
+                    String token = body.substring(i, end + 1);
+                    Slot slot = resolveSlot(token.substring(1, token.length() - 1), token);
+                    if (slot != null) {
+                        literals.add(ColorUtils.processColors(literal.toString()));
+                        literal.setLength(0);
+                        slots.add(slot);
+                        i = end + 1;
+                        continue;
+                    }
+                }
+            }
+            literal.append(c);
+            i++;
+        }
+        literals.add(ColorUtils.processColors(literal.toString()));
+
+        return new CommandTemplate(
+            type,
+            command,
+            literals.toArray(new String[0]),
+            slots.toArray(new Slot[0]),
+            body.indexOf('%') >= 0,
+            0
+        );
+    }
+
+    /**
+     * Сопоставляет заполнитель с индексом аргумента триггера
+     */
+    private static Slot resolveSlot(String name, String token) {
+        switch (name) {
+            case "region_name":
+            case "block_move":
+            case "block_size":
+            case "direction":
+                return new Slot(0, "");
+            case "last_player":
+            case "owners":
+                return new Slot(1, "");
+            case "members":
+                return new Slot(2, "");
+            case "flags":
+                return new Slot(3, "");
+            case "pos1":
+                return new Slot(4, "");
+            case "pos2":
+                return new Slot(5, "");
+            case "blocks":
+                return new Slot(SLOT_BLOCKS, "");
+            default:
+                // Числовые заполнители {0}, {1}, ... остаются как есть, если аргумента нет
+                if (!name.isEmpty() && name.chars().allMatch(Character::isDigit) && name.length() < 4) {
+                    return new Slot(Integer.parseInt(name), token);
+                }
+                return null;
+        }
+    }
+
+    /**
+     * Заполняет шаблон аргументами за один проход
+     */
+    public String render(String[] placeholders) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder result = new StringBuilder(source.length() + 32);
+        for (int i = 0; i < slots.length; i++) {
+            result.append(literals[i]);
+            result.append(resolveValue(slots[i], placeholders));
+        }
+        result.append(literals[slots.length]);
+        return result.toString();
+    }
+
+    private static String resolveValue(Slot slot, String[] placeholders) {
+        String value;
+        if (slot.index() == SLOT_BLOCKS) {
+            // Для move один параметр, для size два (direction, blocks)
+            if (placeholders.length == 1) {
+                value = placeholders[0];
+            } else if (placeholders.length >= 2) {
+                value = placeholders[1];
+            } else {
+                value = "";
+            }
+        } else if (slot.index() < placeholders.length) {
+            value = placeholders[slot.index()];
+        } else {
+            return slot.fallback();
+        }
+
+        if (value == null) {
+            return "";
+        }
+        // Аргументы могут содержать цветовые коды (например, список флагов)
+        return value.indexOf('&') >= 0 ? ColorUtils.processColors(value) : value;
+    }
+
+    public ActionType getType() {
+        return type;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean usesPlaceholderApi() {
+        return usesPlaceholderApi;
+    }
+
+    public int getDelayTicks() {
+        return delayTicks;
+    }
+}
@@ -14,6 +14,7 @@ public class ConfigManager {
     private final RegionBetter plugin;
     private FileConfiguration config;
     private FileConfiguration language;
+    private volatile ConfigSnapshot snapshot;
     private File configFile;
     private File languageFile;
 
@@ -33,6 +34,7 @@ public class ConfigManager {
             plugin.saveDefaultConfig();
         }
         config = YamlConfiguration.loadConfiguration(configFile);
+        snapshot = ConfigSnapshot.compile(config, plugin.getLogger());
 
         // Загружаем языковой файл
         loadLanguageFile();
@@ -42,7 +44,11 @@ public class ConfigManager {
 
     public void reloadConfig() {
         if (configFile != null && configFile.exists()) {
-            config = YamlConfiguration.loadConfiguration(configFile);
+            FileConfiguration reloaded = YamlConfiguration.loadConfiguration(configFile);
+            // Снимок компилируется до публикации и подменяется одной записью
+            ConfigSnapshot compiled = ConfigSnapshot.compile(reloaded, plugin.getLogger());
+            config = reloaded;
+            snapshot = compiled;
         }
 
         // Перезагружаем языковой файл
@@ -69,6 +75,20 @@ public class ConfigManager {
         return config;
     }
 
+    /**
+     * Скомпилированный снимок конфигурации для горячих путей
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Включен ли режим отладки
+     */
+    public boolean isDebug() {
+        return snapshot.debug();
+    }
+
     public FileConfiguration getLanguageConfig() {
         return language;
     }
@@ -0,0 +1,256 @@
+package com.allfire.regionbetter.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Скомпилированный неизменяемый снимок config.yml
+ * Горячие пути читают готовые поля вместо обхода дерева YAML
+ */
+public record ConfigSnapshot(
+    boolean debug,
+    ViewSettings view,
+    RegionSettings region,
+    ValidationRules validation,
+    Map<String, TriggerDefinition> triggers,
+    Map<String, String> placeholderFormats,
+    String shopSymbol,
+    int tabCompleteLimit,
+    DistanceFormat distanceOwned,
+    DistanceFormat distanceMembed,
+    PlaceholderCacheSettings placeholderCache
+) {
+
+    private static final String DEFAULT_NAME_PATTERN = "^[a-zA-Z0-9_-]+$";
+    private static final String DEFAULT_EXIT_COMMAND = "asPlayer! svis we";
+
+    /**
+     * Настройки подсветки регионов (RegionViewSettings)
+     */
+    public record ViewSettings(
+        boolean checkPerms,
+        int cooldownTicks,
+        List<CommandTemplate> cmds,
+        List<CommandTemplate> exitCmds,
+        String trackerMode,
+        int playersPerTick
+    ) {}
+
+    /**
+     * Настройки создания регионов (RegionSettints)
+     */
+    public record RegionSettings(
+        int defaultPriority,
+        boolean installFlags,
+        FlagPreset defaultFlags
+    ) {}
+
+    /**
+     * Правила проверки ввода (Validation, CancelCommands)
+     */
+    public record ValidationRules(
+        Pattern regionNamePattern,
+        Set<String> cancelCommands,
+        Set<String> tabGlowExclusions,
+        Set<String> tabInfoExclusions
+    ) {}
+
+    /**
+     * Триггер команд: секция верхнего уровня с ключом Cmds
+     * Строки команд разобраны в шаблоны при загрузке
+     */
+    public record TriggerDefinition(
+        String name,
+        int cooldown,
+        List<CommandTemplate> actions
+    ) {
+        public static TriggerDefinition empty(String name) {
+            return new TriggerDefinition(name, 0, List.of());
+        }
+    }
+
+    /**
+     * Формат дистанции (DistanceOwned, DistanceMembed)
+     * До порога switch используется единица format, начиная с него - formatswitch
+     * Единицы: b - блоки, c - чанки, k - тысячи блоков
+     */
+    public record DistanceFormat(
+        String unit,
+        double switchAt,
+        String switchUnit
+    ) {
+        public String format(double distance) {
+            String target = switchAt > 0 && distance >= switchAt ? switchUnit : unit;
+            return switch (target) {
+                case "c" -> String.format(Locale.ROOT, "%.1f", distance / 16.0);
+                case "k" -> String.format(Locale.ROOT, "%.1f", distance / 1000.0);
+                default -> String.valueOf(Math.round(distance));
+            };
+        }
+    }
+
+    /**
+     * Время жизни значений заполнителей (PlaceholderCache), в миллисекундах
+     * Default - для заполнителей без своей строки, 0 отключает кэш
+     */
+    public record PlaceholderCacheSettings(
+        long defaultTtlMillis,
+        Map<String, Long> ttlMillis
+    ) {
+        public long ttlMillis(String placeholder) {
+            Long ttl = ttlMillis.get(placeholder);
+            return ttl != null ? ttl : defaultTtlMillis;
+        }
+    }
+
+    /**
+     * Получает триггер по имени, для отсутствующих возвращает пустой
+     */
+    public TriggerDefinition trigger(String name) {
+        TriggerDefinition trigger = triggers.get(name);
+        return trigger != null ? trigger : TriggerDefinition.empty(name);
+    }
+
+    /**
+     * Компилирует снимок из загруженного YAML
+     */
+    public static ConfigSnapshot compile(FileConfiguration config, Logger logger) {
+        ViewSettings view = new ViewSettings(
+            config.getBoolean("RegionViewSettings.CheckPerms", true),
+            config.getInt("RegionViewSettings.Cooldown", 20),
+            compileTemplates(config.getStringList("RegionViewSettings.Cmds")),
+            compileExitTemplates(config.getStringList("RegionViewSettings.ExitCmds")),
+            config.getString("RegionViewSettings.Tracker.Mode", "event"),
+            Math.max(1, config.getInt("RegionViewSettings.Tracker.PlayersPerTick", 50))
+        );
+
+        RegionSettings region = new RegionSettings(
+            config.getInt("RegionSettints.Default-priority", 0),
+            config.getBoolean("RegionSettints.Instal-flags", false),
+            FlagPreset.compile(config.getStringList("RegionSettints.Default-flags"), logger)
+        );
+
+        Set<String> cancelCommands = new HashSet<>();
+        for (String command : config.getStringList("CancelCommands")) {
+            cancelCommands.add(command.toLowerCase());
+        }
+
+        // Исключения автодополнения в нижнем регистре, как ключи индекса названий
+        Set<String> tabGlowExclusions = lowerCase(config.getStringList("RegionTabGlow"));
+        tabGlowExclusions.add("__global__"); // Глобальный регион исключается всегда
+        Set<String> tabInfoExclusions = lowerCase(config.getStringList("RegionTabInfo"));
+        tabInfoExclusions.add("__global__");
+
+        ValidationRules validation = new ValidationRules(
+            compilePattern(config.getString("Validation.RegionNamePattern", DEFAULT_NAME_PATTERN)),
+            Set.copyOf(cancelCommands),
+            Set.copyOf(tabGlowExclusions),
+            Set.copyOf(tabInfoExclusions)
+        );
+
+        Map<String, TriggerDefinition> triggers = new HashMap<>();
+        Map<String, String> placeholderFormats = new HashMap<>();
+        for (String key : config.getKeys(false)) {
+            ConfigurationSection section = config.getConfigurationSection(key);
+            if (section != null) {
+                if (section.contains("Cmds")) {
+                    triggers.put(key, new TriggerDefinition(
+                        key,
+                        section.getInt("Cooldown", 0),
+                        compileTemplates(section.getStringList("Cmds"))
+                    ));
+                }
+            } else if (key.startsWith("region_owned_v") || key.startsWith("region_membed_v")) {
+                placeholderFormats.put(key, config.getString(key, ","));
+            }
+        }
+
+        return new ConfigSnapshot(
+            config.getBoolean("Config.Debug", false),
+            view,
+            region,
+            validation,
+            Map.copyOf(triggers),
+            Map.copyOf(placeholderFormats),
+            config.getString("RegionShop.Symbol", "$"),
+            Math.max(1, config.getInt("Performance.TabCompleteLimit", 100)),
+            compileDistanceFormat(config, "DistanceOwned"),
+            compileDistanceFormat(config, "DistanceMembed"),
+            compilePlaceholderCache(config.getConfigurationSection("PlaceholderCache"))
+        );
+    }
+
+    private static PlaceholderCacheSettings compilePlaceholderCache(ConfigurationSection section) {
+        if (section == null) {
+            return new PlaceholderCacheSettings(0, Map.of());
+        }
+
+        // В конфиге указаны тики, 1 тик = 50 мс
+        Map<String, Long> ttlMillis = new HashMap<>();
+        for (String key : section.getKeys(false)) {
+            if (!key.equals("Default")) {
+                ttlMillis.put(key.toLowerCase(Locale.ROOT), Math.max(0, section.getLong(key)) * 50L);
+            }
+        }
+        return new PlaceholderCacheSettings(Math.max(0, section.getLong("Default", 20)) * 50L, Map.copyOf(ttlMillis));
+    }
+
+    private static DistanceFormat compileDistanceFormat(FileConfiguration config, String path) {
+        double switchAt;
+        try {
+            switchAt = Double.parseDouble(config.getString(path + ".switch", "0"));
+        } catch (NumberFormatException e) {
+            switchAt = 0; // Без переключения единиц
+        }
+        return new DistanceFormat(
+            config.getString(path + ".format", "b").toLowerCase(Locale.ROOT),
+            switchAt,
+            config.getString(path + ".formatswitch", "b").toLowerCase(Locale.ROOT)
+        );
+    }
+
+    private static Set<String> lowerCase(List<String> values) {
+        Set<String> result = new HashSet<>();
+        for (String value : values) {
+            result.add(value.toLowerCase());
+        }
+        return result;
+    }
+
+    private static List<CommandTemplate> compileTemplates(List<String> commands) {
+        List<CommandTemplate> templates = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            CommandTemplate template = CommandTemplate.compile(command);
+            if (template != null) {
+                templates.add(template);
+            }
+        }
+        return List.copyOf(templates);
+    }
+
+    /**
+     * Без ExitCmds при выходе из региона снимается подсветка
+     */
+    private static List<CommandTemplate> compileExitTemplates(List<String> commands) {
+        List<CommandTemplate> templates = compileTemplates(commands);
+        return templates.isEmpty() ? compileTemplates(List.of(DEFAULT_EXIT_COMMAND)) : templates;
+    }
+
+    private static Pattern compilePattern(String regex) {
+        try {
+            return Pattern.compile(regex);
+        } catch (Exception e) {
+            return Pattern.compile(DEFAULT_NAME_PATTERN);
+        }
+    }
+}
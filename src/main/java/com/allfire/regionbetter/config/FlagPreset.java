@@ -0,0 +1,161 @@
+package com.allfire.regionbetter.config;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.util.Location;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.flags.FlagContext;
+import com.sk89q.worldguard.protection.flags.InvalidFlagFormatException;
+import com.sk89q.worldguard.protection.flags.LocationFlag;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Набор флагов по умолчанию (RegionSettints.Default-flags), разобранный при загрузке конфигурации
+ * Флаги найдены в реестре WorldGuard, значения разобраны самим флагом, поэтому поддерживаются все типы
+ * Исключение - флаги координат: от имени консоли WorldGuard их не разбирает, формат "мир,x,y,z[,yaw,pitch]"
+ */
+public final class FlagPreset {
+
+    public static final FlagPreset EMPTY = new FlagPreset(List.of());
+
+    private final List<Entry<?>> entries;
+
+    private FlagPreset(List<Entry<?>> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Флаг и готовое значение
+     */
+    private record Entry<T>(Flag<T> flag, T value) {
+        void applyTo(ProtectedRegion region) {
+            region.setFlag(flag, copy(value));
+        }
+
+        // Значения SetFlag и MapFlag изменяемы: у каждого региона своя копия
+        @SuppressWarnings("unchecked")
+        private static <T> T copy(T value) {
+            if (value instanceof Set<?> set) {
+                return (T) new LinkedHashSet<>(set);
+            }
+            if (value instanceof List<?> list) {
+                return (T) new ArrayList<>(list);
+            }
+            if (value instanceof Map<?, ?> map) {
+                return (T) new HashMap<>(map);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Разбирает строки вида "флаг=значение"
+     * Неизвестные флаги и неверные значения пропускаются с предупреждением
+     */
+    public static FlagPreset compile(List<String> definitions, Logger logger) {
+        if (definitions.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Entry<?>> entries = new ArrayList<>(definitions.size());
+        try {
+            var flagRegistry = WorldGuard.getInstance().getFlagRegistry();
+            var sender = WorldGuardPlugin.inst().wrapCommandSender(Bukkit.getConsoleSender());
+
+            for (String definition : definitions) {
+                String[] parts = definition.split("=", 2);
+                if (parts.length != 2) {
+                    logger.warning("Неверный формат флага по умолчанию: " + definition);
+                    continue;
+                }
+
+                String flagName = parts[0].trim();
+                String flagValue = parts[1].trim();
+
+                Flag<?> flag = flagRegistry.get(flagName);
+                if (flag == null) {
+                    logger.warning("Неизвестный флаг по умолчанию: " + flagName);
+                    continue;
+                }
+
+                // true/false для StateFlag принимались и раньше
+                if (flag instanceof StateFlag) {
+                    if (flagValue.equalsIgnoreCase("true")) {
+                        flagValue = "allow";
+                    } else if (flagValue.equalsIgnoreCase("false")) {
+                        flagValue = "deny";
+                    }
+                }
+
+                try {
+                    if (flag instanceof LocationFlag locationFlag) {
+                        entries.add(new Entry<>(locationFlag, parseLocation(flagValue)));
+                    } else {
+                        entries.add(parse(flag, FlagContext.create().setSender(sender).setInput(flagValue).build()));
+                    }
+                } catch (InvalidFlagFormatException e) {
+                    logger.warning("Неверное значение флага " + flagName + ": " + flagValue + " (" + e.getMessage() + ")");
+                }
+            }
+        } catch (Exception e) {
+            logger.warning("Ошибка при разборе флагов по умолчанию: " + e.getMessage());
+        }
+
+        return new FlagPreset(List.copyOf(entries));
+    }
+
+    private static <T> Entry<T> parse(Flag<T> flag, FlagContext context) throws InvalidFlagFormatException {
+        return new Entry<>(flag, flag.parseInput(context));
+    }
+
+    /**
+     * Разбирает координаты "мир,x,y,z[,yaw,pitch]"
+     */
+    private static Location parseLocation(String input) throws InvalidFlagFormatException {
+        String[] parts = input.split(",");
+        if (parts.length != 4 && parts.length != 6) {
+            throw new InvalidFlagFormatException("ожидается мир,x,y,z[,yaw,pitch]");
+        }
+
+        World world = Bukkit.getWorld(parts[0].trim());
+        if (world == null) {
+            throw new InvalidFlagFormatException("мир " + parts[0].trim() + " не загружен");
+        }
+
+        try {
+            double x = Double.parseDouble(parts[1].trim());
+            double y = Double.parseDouble(parts[2].trim());
+            double z = Double.parseDouble(parts[3].trim());
+            float yaw = parts.length == 6 ? Float.parseFloat(parts[4].trim()) : 0f;
+            float pitch = parts.length == 6 ? Float.parseFloat(parts[5].trim()) : 0f;
+            return new Location(BukkitAdapter.adapt(world), x, y, z, yaw, pitch);
+        } catch (NumberFormatException e) {
+            throw new InvalidFlagFormatException("неверное число: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Устанавливает все флаги набора на регион в памяти, без поиска и сохранения
+     */
+    public void applyTo(ProtectedRegion region) {
+        for (Entry<?> entry : entries) {
+            entry.applyTo(region);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
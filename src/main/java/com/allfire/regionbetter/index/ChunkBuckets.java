@@ -0,0 +1,223 @@
+package com.allfire.regionbetter.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Регионы одного мира, разложенные по корзинам чанков, и список больших регионов
+ * Массивы корзин не изменяются на месте: запись заменяет корзину целиком, чтение идет без блокировок
+ */
+final class ChunkBuckets<T extends IndexedRegion> {
+
+    // Регионы, занимающие больше чанков, хранятся в отдельном списке мира
+    static final int MAX_CHUNKS_PER_REGION = 4096;
+
+    private final T[] empty;
+    // Порядок внутри корзины, null - порядок добавления
+    private final Comparator<? super T> order;
+
+    private final ChunkTable<T[]> table;
+    private final Map<String, T> regions = new ConcurrentHashMap<>();
+    private volatile T[] large;
+
+    /**
+     * Построение мира: корзины собираются целиком и сортируются один раз
+     */
+    ChunkBuckets(T[] empty, Comparator<? super T> order, Collection<T> initial) {
+        this.empty = empty;
+        this.order = order;
+
+        Map<Long, List<T>> collected = new HashMap<>();
+        List<T> largeRegions = new ArrayList<>();
+        for (T region : initial) {
+            regions.put(region.id, region);
+            if (isLarge(region)) {
+                largeRegions.add(region);
+                continue;
+            }
+            for (int cx = region.minX >> 4; cx <= region.maxX >> 4; cx++) {
+                for (int cz = region.minZ >> 4; cz <= region.maxZ >> 4; cz++) {
+                    collected.computeIfAbsent(RegionGeometry.chunkKey(cx, cz), key -> new ArrayList<>()).add(region);
+                }
+            }
+        }
+
+        Map<Long, T[]> buckets = new HashMap<>(collected.size() * 2);
+        for (Map.Entry<Long, List<T>> entry : collected.entrySet()) {
+            buckets.put(entry.getKey(), sorted(entry.getValue()));
+        }
+        this.table = new ChunkTable<>(buckets);
+        this.large = sorted(largeRegions);
+    }
+
+    T[] getBucket(int chunkX, int chunkZ) {
+        T[] bucket = table.get(RegionGeometry.chunkKey(chunkX, chunkZ));
+        return bucket != null ? bucket : empty;
+    }
+
+    T[] getLarge() {
+        return large;
+    }
+
+    T get(String regionId) {
+        return regions.get(regionId);
+    }
+
+    int size() {
+        return regions.size();
+    }
+
+    Collection<T> regions() {
+        return regions.values();
+    }
+
+    /**
+     * Безопасный радиус: сколько блоков (по манхэттенскому расстоянию) можно пройти от точки,
+     * не пересекая границу ни одного региона
+     * Проверяются регионы соседних чанков, более дальние не ближе границы области 3x3 чанка
+     */
+    int getSafeRadius(int x, int y, int z) {
+        int cx = x >> 4, cz = z >> 4;
+        int radius = Math.min(
+            Math.min(x - ((cx - 1) << 4), ((cx + 2) << 4) - 1 - x),
+            Math.min(z - ((cz - 1) << 4), ((cz + 2) << 4) - 1 - z)
+        ) + 1;
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                for (T region : getBucket(cx + dx, cz + dz)) {
+                    radius = Math.min(radius, region.boundaryDistance(x, y, z));
+                }
+            }
+        }
+        for (T region : large) {
+            radius = Math.min(radius, region.boundaryDistance(x, y, z));
+        }
+        return radius;
+    }
+
+    /**
+     * Добавляет регион или заменяет регион с тем же id
+     * Корзины, общие для старых и новых границ, меняются одной записью; новые корзины заполняются
+     * до очистки старых, поэтому читатель может на мгновение увидеть обе версии, но не ни одной
+     */
+    synchronized void put(T region) {
+        T old = regions.put(region.id, region);
+
+        if (isLarge(region)) {
+            large = insert(without(large, old), region);
+        } else {
+            for (int cx = region.minX >> 4; cx <= region.maxX >> 4; cx++) {
+                for (int cz = region.minZ >> 4; cz <= region.maxZ >> 4; cz++) {
+                    long key = RegionGeometry.chunkKey(cx, cz);
+                    table.put(key, insert(without(bucket(key), old), region));
+                }
+            }
+        }
+
+        if (old == null) {
+            return;
+        }
+        if (isLarge(old)) {
+            if (!isLarge(region)) {
+                large = without(large, old);
+            }
+            return;
+        }
+        for (int cx = old.minX >> 4; cx <= old.maxX >> 4; cx++) {
+            for (int cz = old.minZ >> 4; cz <= old.maxZ >> 4; cz++) {
+                if (!covers(region, cx, cz)) {
+                    removeFromBucket(RegionGeometry.chunkKey(cx, cz), old);
+                }
+            }
+        }
+    }
+
+    /**
+     * Удаляет регион, возвращает удаленную запись или null
+     */
+    synchronized T remove(String regionId) {
+        T old = regions.remove(regionId);
+        if (old == null) {
+            return null;
+        }
+        if (isLarge(old)) {
+            large = without(large, old);
+            return old;
+        }
+        for (int cx = old.minX >> 4; cx <= old.maxX >> 4; cx++) {
+            for (int cz = old.minZ >> 4; cz <= old.maxZ >> 4; cz++) {
+                removeFromBucket(RegionGeometry.chunkKey(cx, cz), old);
+            }
+        }
+        return old;
+    }
+
+    private void removeFromBucket(long key, T region) {
+        T[] updated = without(bucket(key), region);
+        if (updated.length == 0) {
+            table.remove(key);
+        } else {
+            table.put(key, updated);
+        }
+    }
+
+    private T[] bucket(long key) {
+        T[] bucket = table.get(key);
+        return bucket != null ? bucket : empty;
+    }
+
+    private static boolean covers(IndexedRegion region, int chunkX, int chunkZ) {
+        return !isLarge(region)
+            && chunkX >= region.minX >> 4 && chunkX <= region.maxX >> 4
+            && chunkZ >= region.minZ >> 4 && chunkZ <= region.maxZ >> 4;
+    }
+
+    private static boolean isLarge(IndexedRegion region) {
+        long chunks = (long) ((region.maxX >> 4) - (region.minX >> 4) + 1) * ((region.maxZ >> 4) - (region.minZ >> 4) + 1);
+        return chunks > MAX_CHUNKS_PER_REGION;
+    }
+
+    private T[] sorted(List<T> list) {
+        T[] array = list.toArray(Arrays.copyOf(empty, list.size()));
+        if (order != null) {
+            Arrays.sort(array, order);
+        }
+        return array;
+    }
+
+    private T[] insert(T[] array, T region) {
+        T[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = region;
+        if (order != null) {
+            Arrays.sort(result, order);
+        }
+        return result;
+    }
+
+    private T[] without(T[] array, T region) {
+        if (region == null) {
+            return array;
+        }
+        int index = -1;
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == region) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return array;
+        }
+        T[] result = Arrays.copyOf(empty, array.length - 1);
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Общая основа индексов по чанкам: миры, построение по WorldGuard, обновление и удаление регионов
+ * Наследник решает, какие регионы входят в индекс и как они представлены
+ */
+public abstract class ChunkRegionIndex<T extends IndexedRegion> {
+
+    protected final RegionBetter plugin;
+    private final Map<String, ChunkBuckets<T>> worlds = new ConcurrentHashMap<>();
+
+    private final T[] empty;
+    private final Comparator<? super T> order;
+
+    ChunkRegionIndex(RegionBetter plugin, T[] empty, Comparator<? super T> order) {
+        this.plugin = plugin;
+        this.empty = empty;
+        this.order = order;
+    }
+
+    /**
+     * Входит ли регион в индекс
+     */
+    abstract boolean accepts(ProtectedRegion region);
+
+    /**
+     * Представление региона в индексе
+     */
+    abstract T create(String worldName, ProtectedRegion region);
+
+    /**
+     * Название индекса для журнала
+     */
+    abstract String describe();
+
+    /**
+     * Регион удален из индекса мира
+     */
+    void removed(String worldName, T region) {
+    }
+
+    /**
+     * Безопасный радиус: сколько блоков (по манхэттенскому расстоянию) игрок может пройти от точки,
+     * не пересекая границу ни одного региона индекса
+     */
+    public int getSafeRadius(World world, int x, int y, int z) {
+        ChunkBuckets<T> index = getWorldIndex(world);
+        return index != null ? index.getSafeRadius(x, y, z) : 0;
+    }
+
+    /**
+     * Добавляет, обновляет или удаляет регион по его текущему состоянию в WorldGuard
+     * Замена публикуется одной записью, регион не пропадает из индекса на время обновления
+     */
+    public void update(World world, ProtectedRegion region) {
+        ChunkBuckets<T> index = getWorldIndex(world);
+        if (index == null) {
+            return;
+        }
+
+        if (accepts(region)) {
+            index.put(create(world.getName(), region));
+        } else {
+            remove(world.getName(), index, region.getId());
+        }
+    }
+
+    /**
+     * Удаляет регион из индекса
+     */
+    public void remove(World world, String regionId) {
+        ChunkBuckets<T> index = getWorldIndex(world);
+        if (index != null) {
+            remove(world.getName(), index, regionId);
+        }
+    }
+
+    /**
+     * Сверяет индекс мира с регионами WorldGuard и обновляет только изменившиеся записи
+     * Регион считается изменившимся, если WorldGuard заменил объект (redefine) или сменился приоритет
+     *
+     * @param regions регионы мира, полученные один раз на весь проход сверки
+     * @return true, если индекс изменился
+     */
+    public boolean reconcile(World world, Map<String, ProtectedRegion> regions) {
+        ChunkBuckets<T> index = worlds.get(world.getName());
+        if (index == null) {
+            // Мир еще не запрашивали: индекс построится по текущим данным при первом обращении
+            return false;
+        }
+
+        boolean changed = false;
+        for (ProtectedRegion region : regions.values()) {
+            changed |= sync(world.getName(), index, region.getId(), region);
+        }
+
+        for (T current : index.regions()) {
+            if (!regions.containsKey(current.id)) {
+                changed |= remove(world.getName(), index, current.id);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Сверяет с WorldGuard один регион мира
+     *
+     * @param region текущий регион WorldGuard, null если региона больше нет
+     * @return true, если индекс изменился
+     */
+    public boolean reconcile(World world, String regionId, ProtectedRegion region) {
+        ChunkBuckets<T> index = worlds.get(world.getName());
+        return index != null && sync(world.getName(), index, regionId, region);
+    }
+
+    /**
+     * Забывает индексы выгруженных миров
+     */
+    public void retainWorlds(Set<String> loaded) {
+        for (Map.Entry<String, ChunkBuckets<T>> entry : worlds.entrySet()) {
+            if (loaded.contains(entry.getKey())) {
+                continue;
+            }
+            worlds.remove(entry.getKey());
+            for (T region : entry.getValue().regions()) {
+                removed(entry.getKey(), region);
+            }
+        }
+    }
+
+    /**
+     * Заполняет индекс мира готовым набором регионов без обращения к WorldGuard (бенчмарки)
+     */
+    void load(String worldName, Collection<ProtectedRegion> regions) {
+        List<T> indexed = new ArrayList<>(regions.size());
+        for (ProtectedRegion region : regions) {
+            indexed.add(create(worldName, region));
+        }
+        worlds.put(worldName, new ChunkBuckets<>(empty, order, indexed));
+    }
+
+    private boolean sync(String worldName, ChunkBuckets<T> index, String regionId, ProtectedRegion region) {
+        if (region != null && accepts(region)) {
+            T current = index.get(regionId);
+            if (current != null && !current.isStale(region)) {
+                return false;
+            }
+            index.put(create(worldName, region));
+            return true;
+        }
+        return remove(worldName, index, regionId);
+    }
+
+    private boolean remove(String worldName, ChunkBuckets<T> index, String regionId) {
+        T old = index.remove(regionId);
+        if (old == null) {
+            return false;
+        }
+        removed(worldName, old);
+        return true;
+    }
+
+    ChunkBuckets<T> getWorldIndex(World world) {
+        ChunkBuckets<T> index = worlds.get(world.getName());
+        if (index != null) {
+            return index;
+        }
+
+        index = build(world);
+        if (index != null) {
+            ChunkBuckets<T> existing = worlds.putIfAbsent(world.getName(), index);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return index;
+    }
+
+    private ChunkBuckets<T> build(World world) {
+        try {
+            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
+
+            if (regionManager == null) {
+                return null;
+            }
+
+            List<T> indexed = new ArrayList<>();
+            for (ProtectedRegion region : regionManager.getRegions().values()) {
+                if (accepts(region)) {
+                    indexed.add(create(world.getName(), region));
+                }
+            }
+            ChunkBuckets<T> index = new ChunkBuckets<>(empty, order, indexed);
+
+            if (plugin.getConfigManager().isDebug()) {
+                plugin.getLogger().info("Индекс " + describe() + " для мира " + world.getName() + ": " + index.size() + " регионов");
+            }
+            return index;
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Ошибка при построении индекса " + describe() + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.allfire.regionbetter.index;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Таблица "чанк -> корзина" с открытой адресацией по ключу long
+ * Поиск не упаковывает ключ в Long, ничего не выделяет и идет без блокировок, поэтому годится для PlayerMoveEvent
+ * Запись - только одним потоком под блокировкой индекса: ячейка меняется на месте одной записью,
+ * вся таблица копируется лишь при росте
+ */
+final class ChunkTable<T> {
+
+    // Удаленная ячейка: цепочка поиска через нее не прерывается
+    private static final Object REMOVED = new Object();
+
+    private static final class Slots {
+        private final long[] keys;
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+
+        private Slots(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+    }
+
+    private volatile Slots slots;
+
+    // Занятые ячейки вместе с удаленными, только для потока записи
+    private int used;
+
+    ChunkTable(Map<Long, T> buckets) {
+        this.slots = new Slots(capacityFor(buckets.size()));
+        for (Map.Entry<Long, T> entry : buckets.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(long key) {
+        Slots current = slots;
+        for (int slot = slot(key, current.mask); ; slot = (slot + 1) & current.mask) {
+            // Чтение значения упорядочено с записью ключа перед ним
+            Object value = current.values.get(slot);
+            if (value == null) {
+                return null;
+            }
+            if (current.keys[slot] == key) {
+                return value == REMOVED ? null : (T) value;
+            }
+        }
+    }
+
+    /**
+     * Записывает корзину чанка; читатели видят старую или новую корзину, но не пустую ячейку
+     */
+    void put(long key, T value) {
+        Slots current = slots;
+        int slot = find(current, key);
+        if (current.values.get(slot) != null) {
+            current.values.set(slot, value);
+            return;
+        }
+
+        // Заполнение не больше половины, поэтому поиск всегда доходит до пустой ячейки
+        if ((used + 1) * 2 > current.keys.length) {
+            current = resize(current);
+            slot = find(current, key);
+        }
+        current.keys[slot] = key;
+        current.values.set(slot, value);
+        used++;
+    }
+
+    void remove(long key) {
+        Slots current = slots;
+        int slot = find(current, key);
+        if (current.values.get(slot) != null) {
+            current.values.set(slot, REMOVED);
+        }
+    }
+
+    // Ячейка ключа или первая пустая ячейка цепочки
+    private static int find(Slots current, long key) {
+        for (int slot = slot(key, current.mask); ; slot = (slot + 1) & current.mask) {
+            if (current.values.get(slot) == null || current.keys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    // Новая таблица без удаленных ячеек публикуется целиком
+    private Slots resize(Slots current) {
+        int live = 0;
+        for (int i = 0; i < current.keys.length; i++) {
+            Object value = current.values.get(i);
+            if (value != null && value != REMOVED) {
+                live++;
+            }
+        }
+
+        Slots resized = new Slots(capacityFor(live + 1));
+        for (int i = 0; i < current.keys.length; i++) {
+            Object value = current.values.get(i);
+            if (value != null && value != REMOVED) {
+                int slot = find(resized, current.keys[i]);
+                resized.keys[slot] = current.keys[i];
+                resized.values.set(slot, value);
+            }
+        }
+        used = live;
+        slots = resized;
+        return resized;
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = 8;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
@@ -0,0 +1,104 @@
+package com.allfire.regionbetter.index;
+
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionType;
+
+import java.util.List;
+
+/**
+ * Неизменяемые границы региона WorldGuard для индексов по чанкам
+ * Точка и расстояние до границы проверяются по примитивным полям, без BlockVector3 из WorldGuard
+ */
+public abstract class IndexedRegion {
+    final ProtectedRegion region;
+    final String id;
+    final int priority;
+    final boolean cuboid;
+    final int minX, minY, minZ;
+    final int maxX, maxY, maxZ;
+
+    // Вершины полигона для проверки точки и расстояния до ребер, null у кубоидов
+    final int[] pointsX, pointsZ;
+
+    IndexedRegion(ProtectedRegion region) {
+        BlockVector3 min = region.getMinimumPoint();
+        BlockVector3 max = region.getMaximumPoint();
+        this.region = region;
+        this.id = region.getId();
+        this.priority = region.getPriority();
+        this.cuboid = region.getType() == RegionType.CUBOID;
+        this.minX = min.x();
+        this.minY = min.y();
+        this.minZ = min.z();
+        this.maxX = max.x();
+        this.maxY = max.y();
+        this.maxZ = max.z();
+
+        if (cuboid) {
+            this.pointsX = null;
+            this.pointsZ = null;
+        } else {
+            List<BlockVector2> points = region.getPoints();
+            this.pointsX = new int[points.size()];
+            this.pointsZ = new int[points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                pointsX[i] = points.get(i).x();
+                pointsZ[i] = points.get(i).z();
+            }
+        }
+    }
+
+    public boolean contains(int x, int y, int z) {
+        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+            return false;
+        }
+        // Для полигонов после AABB нужна точная проверка формы
+        return cuboid || RegionGeometry.polygonContains(pointsX, pointsZ, x, z);
+    }
+
+    boolean intersects(int otherMinX, int otherMinY, int otherMinZ, int otherMaxX, int otherMaxY, int otherMaxZ) {
+        return minX <= otherMaxX && maxX >= otherMinX
+            && minY <= otherMaxY && maxY >= otherMinY
+            && minZ <= otherMaxZ && maxZ >= otherMinZ;
+    }
+
+    /**
+     * Нижняя оценка манхэттенского расстояния (в блоках), после которого
+     * точка может войти в регион или выйти из него
+     */
+    int boundaryDistance(int x, int y, int z) {
+        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+            // Снаружи AABB: нужно пройти зазор по каждой оси
+            return Math.max(0, Math.max(minX - x, x - maxX))
+                + Math.max(0, Math.max(minY - y, y - maxY))
+                + Math.max(0, Math.max(minZ - z, z - maxZ));
+        }
+
+        // Внутри AABB: выход через ближайшую грань
+        int distance = Math.min(Math.min(x - minX, maxX - x), Math.min(Math.min(y - minY, maxY - y), Math.min(z - minZ, maxZ - z))) + 1;
+        if (!cuboid) {
+            // Манхэттенский путь не короче евклидова расстояния до ребра; блок запаса на округление
+            distance = Math.min(distance, Math.max(0, (int) RegionGeometry.edgeDistance(pointsX, pointsZ, x, z) - 1));
+        }
+        return distance;
+    }
+
+    /**
+     * Запись устарела: WorldGuard заменил регион (redefine) или изменил его приоритет
+     */
+    boolean isStale(ProtectedRegion current) {
+        return current != region || current.getPriority() != priority;
+    }
+
+    public ProtectedRegion getRegion() { return region; }
+    public String getId() { return id; }
+    public int getPriority() { return priority; }
+    public int getMinX() { return minX; }
+    public int getMinY() { return minY; }
+    public int getMinZ() { return minZ; }
+    public int getMaxX() { return maxX; }
+    public int getMaxY() { return maxY; }
+    public int getMaxZ() { return maxZ; }
+}
@@ -0,0 +1,118 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.RegionBetter;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ближайший регион игрока (владелец или участник) для заполнителей дистанции
+ * Для каждого игрока хранится небольшой список границ его регионов в текущем мире,
+ * список перестраивается только после изменения индекса владельцев
+ */
+public class NearestRegionIndex {
+
+    private static final RegionSpatialIndex.Bounds[] EMPTY = new RegionSpatialIndex.Bounds[0];
+
+    private final RegionBetter plugin;
+    private final Map<UUID, PlayerRegions> players = new ConcurrentHashMap<>();
+
+    public NearestRegionIndex(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Ближайший регион и расстояние до его границы в блоках
+     */
+    public record Nearest(String regionId, double distance) {}
+
+    /**
+     * Границы регионов игрока, построенные по версии индекса владельцев
+     */
+    private record PlayerRegions(
+        String worldName,
+        long version,
+        RegionSpatialIndex.Bounds[] owned,
+        RegionSpatialIndex.Bounds[] member
+    ) {}
+
+    /**
+     * Находит ближайший регион игрока, null если регионов в мире нет
+     *
+     * @param owned true - регионы, где игрок владелец, false - где участник
+     */
+    public Nearest findNearest(Player player, boolean owned) {
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+
+        PlayerRegions regions = getPlayerRegions(player.getUniqueId(), world);
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+
+        RegionSpatialIndex.Bounds best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (RegionSpatialIndex.Bounds bounds : owned ? regions.owned() : regions.member()) {
+            long distance = bounds.distanceSquared(x, z);
+            if (distance < bestDistance) {
+                best = bounds;
+                bestDistance = distance;
+                if (distance == 0) {
+                    break; // Игрок внутри региона
+                }
+            }
+        }
+
+        return best != null ? new Nearest(best.getId(), Math.sqrt(bestDistance)) : null;
+    }
+
+    /**
+     * Удаляет данные игрока
+     */
+    public void clear(UUID uuid) {
+        players.remove(uuid);
+    }
+
+    private PlayerRegions getPlayerRegions(UUID uuid, World world) {
+        RegionOwnershipIndex ownershipIndex = plugin.getOwnershipIndex();
+        // Версия читается до построения, чтобы изменение во время построения вызвало повторное построение
+        long version = ownershipIndex.getVersion();
+
+        PlayerRegions regions = players.get(uuid);
+        if (regions != null && regions.version() == version && regions.worldName().equals(world.getName())) {
+            return regions;
+        }
+
+        regions = new PlayerRegions(
+            world.getName(),
+            version,
+            collectBounds(world, ownershipIndex.getPlayerRegions(world, uuid, true, false)),
+            collectBounds(world, ownershipIndex.getPlayerRegions(world, uuid, false, true))
+        );
+        players.put(uuid, regions);
+        return regions;
+    }
+
+    private RegionSpatialIndex.Bounds[] collectBounds(World world, List<String> regionIds) {
+        if (regionIds.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<RegionSpatialIndex.Bounds> result = new ArrayList<>(regionIds.size());
+        for (String regionId : regionIds) {
+            RegionSpatialIndex.Bounds bounds = plugin.getSpatialIndex().getBounds(world, regionId);
+            if (bounds != null) {
+                result.add(bounds);
+            }
+        }
+        return result.toArray(EMPTY);
+    }
+}
@@ -0,0 +1,122 @@
+package com.allfire.regionbetter.index;
+
+/**
+ * Геометрия индексов регионов без зависимостей от Bukkit и WorldGuard
+ */
+final class RegionGeometry {
+
+    private RegionGeometry() {
+    }
+
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int chunkZ(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Сколько чанков пересекает отрезок между центрами блоков (x0, z0) и (x1, z1)
+     */
+    static int segmentChunkCount(int x0, int z0, int x1, int z1) {
+        return Math.abs((x1 >> 4) - (x0 >> 4)) + Math.abs((z1 >> 4) - (z0 >> 4)) + 1;
+    }
+
+    /**
+     * Записывает в буфер чанки, через которые проходит отрезок, в порядке прохождения, и возвращает их количество
+     * DDA по сетке чанков; на оси, где отрезок остается в одном столбце чанков, граница недостижима
+     * Буфер не меньше segmentChunkCount, поэтому обход ничего не выделяет
+     */
+    static int segmentChunks(int x0, int z0, int x1, int z1, long[] chunks) {
+        double sx = x0 + 0.5, sz = z0 + 0.5;
+        double dx = x1 - x0, dz = z1 - z0;
+
+        int cx = x0 >> 4, cz = z0 >> 4;
+        int stepX = Integer.signum((x1 >> 4) - cx);
+        int stepZ = Integer.signum((z1 >> 4) - cz);
+        double tDeltaX = stepX != 0 ? 16.0 / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaZ = stepZ != 0 ? 16.0 / Math.abs(dz) : Double.POSITIVE_INFINITY;
+        double tMaxX = stepX != 0 ? (((stepX > 0 ? cx + 1 : cx) << 4) - sx) / dx : Double.POSITIVE_INFINITY;
+        double tMaxZ = stepZ != 0 ? (((stepZ > 0 ? cz + 1 : cz) << 4) - sz) / dz : Double.POSITIVE_INFINITY;
+
+        // Отрезок пересекает ровно столько чанков
+        int count = segmentChunkCount(x0, z0, x1, z1);
+        for (int i = 0; ; i++) {
+            chunks[i] = chunkKey(cx, cz);
+            if (i + 1 == count) {
+                return count;
+            }
+            if (tMaxX < tMaxZ) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cz += stepZ;
+                tMaxZ += tDeltaZ;
+            }
+        }
+    }
+
+    /**
+     * Точка внутри полигона по тому же правилу, что ProtectedPolygonalRegion.contains:
+     * вершины и ребра считаются внутренними
+     */
+    static boolean polygonContains(int[] pointsX, int[] pointsZ, int x, int z) {
+        if (pointsX.length == 0) {
+            return false;
+        }
+        boolean inside = false;
+        int xOld = pointsX[pointsX.length - 1];
+        int zOld = pointsZ[pointsZ.length - 1];
+        for (int i = 0; i < pointsX.length; i++) {
+            int xNew = pointsX[i];
+            int zNew = pointsZ[i];
+            if (xNew == x && zNew == z) {
+                return true;
+            }
+
+            int x1, z1, x2, z2;
+            if (xNew > xOld) {
+                x1 = xOld; z1 = zOld;
+                x2 = xNew; z2 = zNew;
+            } else {
+                x1 = xNew; z1 = zNew;
+                x2 = xOld; z2 = zOld;
+            }
+
+            if (x1 <= x && x <= x2) {
+                long cross = ((long) z - z1) * (long) (x2 - x1) - ((long) z2 - z1) * (long) (x - x1);
+                if (cross == 0) {
+                    if ((z1 <= z) == (z <= z2)) {
+                        return true; // На ребре
+                    }
+                } else if (cross < 0 && x1 != x) {
+                    inside = !inside;
+                }
+            }
+            xOld = xNew;
+            zOld = zNew;
+        }
+        return inside;
+    }
+
+    /**
+     * Расстояние по горизонтали от точки до ближайшего ребра полигона
+     */
+    static double edgeDistance(int[] pointsX, int[] pointsZ, int x, int z) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0, j = pointsX.length - 1; i < pointsX.length; j = i++) {
+            double ax = pointsX[j], az = pointsZ[j];
+            double ex = pointsX[i] - ax, ez = pointsZ[i] - az;
+            double lengthSquared = ex * ex + ez * ez;
+            double t = lengthSquared > 0 ? Math.max(0, Math.min(1, ((x - ax) * ex + (z - az) * ez) / lengthSquared)) : 0;
+            double px = ax + ex * t - x, pz = az + ez * t - z;
+            best = Math.min(best, px * px + pz * pz);
+        }
+        return Math.sqrt(best);
+    }
+}
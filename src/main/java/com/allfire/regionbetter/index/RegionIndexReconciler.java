@@ -0,0 +1,136 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Единый проход сверки всех индексов регионов с WorldGuard
+ * Регионы мира читаются один раз, каждый индекс меняет только изменившиеся записи, без перестроения мира
+ */
+public class RegionIndexReconciler {
+
+    private final RegionBetter plugin;
+    private BukkitTask task;
+
+    public RegionIndexReconciler(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Запускает периодическую сверку (Performance.IndexReconcileInterval)
+     */
+    public void start() {
+        stop();
+        long interval = plugin.getConfigManager().getConfig().getLong("Performance.IndexReconcileInterval", 60) * 20L;
+        if (interval <= 0) {
+            return;
+        }
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::reconcile, interval, interval);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Сверяет индексы всех загруженных миров и забывает выгруженные миры
+     */
+    public void reconcile() {
+        Set<String> loaded = new HashSet<>();
+        for (World world : plugin.getServer().getWorlds()) {
+            loaded.add(world.getName());
+            reconcile(world);
+        }
+
+        plugin.getViewRegionIndex().retainWorlds(loaded);
+        plugin.getSpatialIndex().retainWorlds(loaded);
+        plugin.getOwnershipIndex().retainWorlds(loaded);
+        plugin.getNameIndex().retainWorlds(loaded);
+    }
+
+    /**
+     * Сверяет индексы одного мира с WorldGuard
+     */
+    public void reconcile(World world) {
+        try {
+            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
+
+            if (regionManager == null) {
+                return;
+            }
+
+            // getRegions() копирует карту регионов, поэтому берется один раз на все индексы
+            Map<String, ProtectedRegion> regions = regionManager.getRegions();
+
+            boolean bounds = plugin.getViewRegionIndex().reconcile(world, regions);
+            bounds |= plugin.getSpatialIndex().reconcile(world, regions);
+            boolean owners = plugin.getOwnershipIndex().reconcile(world, regions);
+            plugin.getNameIndex().reconcile(world, regions);
+
+            changed(world, null, bounds, owners);
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Ошибка при сверке индексов регионов мира " + world.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Сверяет с WorldGuard один регион во всех индексах, без чтения остальных регионов мира
+     */
+    public void reconcile(World world, String regionId) {
+        try {
+            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
+
+            if (regionManager == null) {
+                return;
+            }
+
+            // null - регион удален; id в индексах совпадает с нормализованным id WorldGuard
+            ProtectedRegion region = regionManager.getRegion(regionId);
+            String id = region != null ? region.getId() : regionId.toLowerCase(Locale.ROOT);
+
+            boolean bounds = plugin.getViewRegionIndex().reconcile(world, id, region);
+            bounds |= plugin.getSpatialIndex().reconcile(world, id, region);
+            boolean owners = plugin.getOwnershipIndex().reconcile(world, id, region);
+            plugin.getNameIndex().reconcile(world, id, region);
+
+            changed(world, id, bounds, owners);
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Ошибка при сверке региона " + regionId + " мира " + world.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param regionId измененный регион, null - любой регион мира
+     */
+    private void changed(World world, String regionId, boolean bounds, boolean owners) {
+        if (bounds) {
+            // Игроки мира заново определят регионы при следующем движении
+            plugin.getRegionTracker().invalidateRegions(world, regionId);
+        }
+        if (bounds || owners) {
+            plugin.getPlaceholderCache().invalidateAll();
+        }
+
+        if (plugin.getConfigManager().isDebug() && (bounds || owners)) {
+            plugin.getLogger().info("Индексы регионов мира " + world.getName() + " сверены с WorldGuard"
+                + (regionId != null ? " (" + regionId + ")" : ""));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionType;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Отсортированный индекс названий регионов для автодополнения
+ * Поиск по префиксу за O(log n + k), безопасен для асинхронного автодополнения Paper
+ */
+public class RegionNameIndex {
+
+    private final RegionBetter plugin;
+
+    // Мир -> название в нижнем регистре -> id региона
+    private final Map<String, ConcurrentSkipListMap<String, String>> worlds = new ConcurrentHashMap<>();
+
+    public RegionNameIndex(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Находит регионы, названия которых начинаются с префикса
+     *
+     * @param excluded исключения в нижнем регистре
+     * @param limit    максимальное количество результатов
+     */
+    public List<String> complete(World world, String prefix, Set<String> excluded, int limit) {
+        ConcurrentSkipListMap<String, String> names = getWorldIndex(world);
+        List<String> result = new ArrayList<>();
+        if (names == null || limit <= 0) {
+            return result;
+        }
+
+        String from = prefix.toLowerCase(Locale.ROOT);
+        ConcurrentNavigableMap<String, String> range = from.isEmpty()
+            ? names
+            : names.subMap(from, true, from + Character.MAX_VALUE, false);
+
+        for (Map.Entry<String, String> entry : range.entrySet()) {
+            if (excluded.contains(entry.getKey())) {
+                continue;
+            }
+            result.add(entry.getValue());
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public void add(World world, ProtectedRegion region) {
+        ConcurrentSkipListMap<String, String> names = getWorldIndex(world);
+        if (names != null && region.getType() != RegionType.GLOBAL) {
+            names.put(region.getId().toLowerCase(Locale.ROOT), region.getId());
+        }
+    }
+
+    public void remove(World world, String regionId) {
+        ConcurrentSkipListMap<String, String> names = getWorldIndex(world);
+        if (names != null) {
+            names.remove(regionId.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Сверяет названия мира с регионами WorldGuard, меняя только добавленные и удаленные
+     *
+     * @param regions регионы мира, полученные один раз на весь проход сверки
+     */
+    public void reconcile(World world, Map<String, ProtectedRegion> regions) {
+        ConcurrentSkipListMap<String, String> names = worlds.get(world.getName());
+        if (names == null) {
+            return;
+        }
+
+        for (ProtectedRegion region : regions.values()) {
+            if (region.getType() != RegionType.GLOBAL) {
+                names.putIfAbsent(region.getId().toLowerCase(Locale.ROOT), region.getId());
+            }
+        }
+        names.values().removeIf(regionId -> !regions.containsKey(regionId));
+    }
+
+    /**
+     * Сверяет с WorldGuard название одного региона
+     *
+     * @param region текущий регион WorldGuard, null если региона больше нет
+     */
+    public void reconcile(World world, String regionId, ProtectedRegion region) {
+        ConcurrentSkipListMap<String, String> names = worlds.get(world.getName());
+        if (names == null) {
+            return;
+        }
+
+        if (region != null && region.getType() != RegionType.GLOBAL) {
+            names.putIfAbsent(region.getId().toLowerCase(Locale.ROOT), region.getId());
+        } else {
+            names.remove(regionId.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Забывает индексы выгруженных миров
+     */
+    public void retainWorlds(Set<String> loaded) {
+        worlds.keySet().retainAll(loaded);
+    }
+
+    private ConcurrentSkipListMap<String, String> getWorldIndex(World world) {
+        ConcurrentSkipListMap<String, String> names = worlds.get(world.getName());
+        if (names != null) {
+            return names;
+        }
+
+        names = build(world);
+        if (names != null) {
+            ConcurrentSkipListMap<String, String> existing = worlds.putIfAbsent(world.getName(), names);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return names;
+    }
+
+    private ConcurrentSkipListMap<String, String> build(World world) {
+        try {
+            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
+
+            if (regionManager == null) {
+                return null;
+            }
+
+            ConcurrentSkipListMap<String, String> names = new ConcurrentSkipListMap<>();
+            for (ProtectedRegion region : regionManager.getRegions().values()) {
+                if (region.getType() != RegionType.GLOBAL) {
+                    names.put(region.getId().toLowerCase(Locale.ROOT), region.getId());
+                }
+            }
+            return names;
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Ошибка при построении индекса названий регионов: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Индекс владельцев и участников регионов: UUID -> id регионов для каждого мира
+ * Обновляется мутациями RegionBetter и периодически сверяется с WorldGuard
+ */
+public class RegionOwnershipIndex {
+
+    private final RegionBetter plugin;
+    private final Map<String, WorldIndex> worlds = new ConcurrentHashMap<>();
+
+    // Увеличивается при каждом изменении владельцев или участников
+    private final AtomicLong version = new AtomicLong();
+
+    public RegionOwnershipIndex(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Получает регионы игрока в мире за O(размер результата)
+     */
+    public List<String> getPlayerRegions(World world, UUID uuid, boolean owned, boolean member) {
+        WorldIndex index = getWorldIndex(world);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        return index.query(uuid, owned, member);
+    }
+
+    /**
+     * Версия индекса: кэши, построенные по индексу, сравнивают ее при чтении
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Добавляет в индекс всех владельцев и участников нового региона
+     */
+    public void addRegion(World world, ProtectedRegion region) {
+        WorldIndex index = getWorldIndex(world);
+        if (index != null) {
+            index.add(region);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Удаляет регион из индекса
+     */
+    public void removeRegion(World world, ProtectedRegion region) {
+        WorldIndex index = getWorldIndex(world);
+        if (index != null) {
+            index.remove(region.getId());
+        }
+        version.incrementAndGet();
+    }
+
+    public void addOwner(World world, UUID uuid, String regionId) {
+        WorldIndex index = getWorldIndex(world);
+        if (index != null) {
+            index.put(index.owners, uuid, regionId);
+        }
+        version.incrementAndGet();
+    }
+
+    public void removeOwner(World world, UUID uuid, String regionId) {
+        WorldIndex index = getWorldIndex(world);
+        if (index != null) {
+            index.delete(index.owners, uuid, regionId);
+        }
+        version.incrementAndGet();
+    }
+
+    public void addMember(World world, UUID uuid, String regionId) {
+        WorldIndex index = getWorldIndex(world);
+        if (index != null) {
+            index.put(index.members, uuid, regionId);
+        }
+        version.incrementAndGet();
+    }
+
+    public void removeMember(World world, UUID uuid, String regionId) {
+        WorldIndex index = getWorldIndex(world);
+        if (index != null) {
+            index.delete(index.members, uuid, regionId);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Сверяет индекс мира с WorldGuard: меняются только регионы, у которых изменились владельцы или участники
+     * Подхватывает изменения, сделанные в обход RegionBetter (/rg addowner и т.д.)
+     *
+     * @param regions регионы мира, полученные один раз на весь проход сверки
+     * @return true, если индекс изменился
+     */
+    public boolean reconcile(World world, Map<String, ProtectedRegion> regions) {
+        WorldIndex index = worlds.get(world.getName());
+        if (index == null || !index.sync(regions)) {
+            return false;
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Сверяет с WorldGuard владельцев и участников одного региона
+     *
+     * @param region текущий регион WorldGuard, null если региона больше нет
+     * @return true, если индекс изменился
+     */
+    public boolean reconcile(World world, String regionId, ProtectedRegion region) {
+        WorldIndex index = worlds.get(world.getName());
+        if (index == null || !index.sync(regionId, region)) {
+            return false;
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Забывает индексы выгруженных миров
+     */
+    public void retainWorlds(Set<String> loaded) {
+        worlds.keySet().retainAll(loaded);
+    }
+
+    private WorldIndex getWorldIndex(World world) {
+        WorldIndex index = worlds.get(world.getName());
+        if (index != null) {
+            return index;
+        }
+
+        index = build(world);
+        if (index != null) {
+            WorldIndex existing = worlds.putIfAbsent(world.getName(), index);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return index;
+    }
+
+    private WorldIndex build(World world) {
+        try {
+            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
+
+            if (regionManager == null) {
+                return null;
+            }
+
+            WorldIndex index = new WorldIndex();
+            for (ProtectedRegion region : regionManager.getRegions().values()) {
+                index.add(region);
+            }
+            return index;
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Ошибка при построении индекса владельцев: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Индекс одного мира
+     */
+    private static final class WorldIndex {
+        private final Role owners = new Role();
+        private final Role members = new Role();
+
+        synchronized void add(ProtectedRegion region) {
+            for (UUID uuid : region.getOwners().getUniqueIds()) {
+                owners.put(uuid, region.getId());
+            }
+            for (UUID uuid : region.getMembers().getUniqueIds()) {
+                members.put(uuid, region.getId());
+            }
+        }
+
+        synchronized void remove(String regionId) {
+            owners.removeRegion(regionId);
+            members.removeRegion(regionId);
+        }
+
+        synchronized void put(Role role, UUID uuid, String regionId) {
+            role.put(uuid, regionId);
+        }
+
+        synchronized void delete(Role role, UUID uuid, String regionId) {
+            role.delete(uuid, regionId);
+        }
+
+        synchronized boolean sync(Map<String, ProtectedRegion> regions) {
+            boolean changed = false;
+            for (ProtectedRegion region : regions.values()) {
+                changed |= owners.sync(region.getId(), region.getOwners().getUniqueIds());
+                changed |= members.sync(region.getId(), region.getMembers().getUniqueIds());
+            }
+            changed |= owners.byRegion.keySet().removeIf(regionId -> !regions.containsKey(regionId) && owners.clear(regionId));
+            changed |= members.byRegion.keySet().removeIf(regionId -> !regions.containsKey(regionId) && members.clear(regionId));
+            return changed;
+        }
+
+        synchronized boolean sync(String regionId, ProtectedRegion region) {
+            if (region == null) {
+                boolean indexed = owners.byRegion.containsKey(regionId) || members.byRegion.containsKey(regionId);
+                remove(regionId);
+                return indexed;
+            }
+            boolean changed = owners.sync(regionId, region.getOwners().getUniqueIds());
+            changed |= members.sync(regionId, region.getMembers().getUniqueIds());
+            return changed;
+        }
+
+        synchronized List<String> query(UUID uuid, boolean owned, boolean member) {
+            Set<String> ownedIds = owned ? owners.byPlayer.getOrDefault(uuid, Collections.emptySet()) : Collections.emptySet();
+            Set<String> memberIds = member ? members.byPlayer.getOrDefault(uuid, Collections.emptySet()) : Collections.emptySet();
+
+            List<String> result = new ArrayList<>(ownedIds.size() + memberIds.size());
+            result.addAll(ownedIds);
+            for (String id : memberIds) {
+                // Регион, где игрок и владелец и участник, учитывается один раз
+                if (!ownedIds.contains(id)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Владельцы или участники мира в обе стороны: игрок -> регионы и регион -> игроки
+     * Второе направление - снимок, с которым сверка сравнивает текущие данные WorldGuard
+     */
+    private static final class Role {
+        private final Map<UUID, Set<String>> byPlayer = new HashMap<>();
+        private final Map<String, Set<UUID>> byRegion = new HashMap<>();
+
+        void put(UUID uuid, String regionId) {
+            byPlayer.computeIfAbsent(uuid, k -> new LinkedHashSet<>()).add(regionId);
+            byRegion.computeIfAbsent(regionId, k -> new HashSet<>()).add(uuid);
+        }
+
+        void delete(UUID uuid, String regionId) {
+            unlink(uuid, regionId);
+            Set<UUID> uuids = byRegion.get(regionId);
+            if (uuids != null) {
+                uuids.remove(uuid);
+                if (uuids.isEmpty()) {
+                    byRegion.remove(regionId);
+                }
+            }
+        }
+
+        void removeRegion(String regionId) {
+            if (clear(regionId)) {
+                byRegion.remove(regionId);
+            }
+        }
+
+        /**
+         * Приводит игроков региона к текущему набору WorldGuard, возвращает true при изменении
+         */
+        boolean sync(String regionId, Set<UUID> current) {
+            Set<UUID> indexed = byRegion.getOrDefault(regionId, Collections.emptySet());
+            if (indexed.equals(current)) {
+                return false;
+            }
+            for (UUID uuid : new ArrayList<>(indexed)) {
+                if (!current.contains(uuid)) {
+                    delete(uuid, regionId);
+                }
+            }
+            for (UUID uuid : current) {
+                put(uuid, regionId);
+            }
+            return true;
+        }
+
+        // Убирает регион у всех его игроков, запись byRegion остается вызывающему
+        private boolean clear(String regionId) {
+            Set<UUID> uuids = byRegion.get(regionId);
+            if (uuids == null) {
+                return false;
+            }
+            for (UUID uuid : uuids) {
+                unlink(uuid, regionId);
+            }
+            return true;
+        }
+
+        private void unlink(UUID uuid, String regionId) {
+            Set<String> ids = byPlayer.get(uuid);
+            if (ids != null) {
+                ids.remove(regionId);
+                if (ids.isEmpty()) {
+                    byPlayer.remove(uuid);
+                }
+            }
+        }
+    }
+}
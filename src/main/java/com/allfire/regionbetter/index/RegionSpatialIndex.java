@@ -0,0 +1,165 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionType;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пространственный индекс всех регионов мира для проверки пересечений
+ * Границы регионов разложены по чанкам, запрос проверяет только регионы из затронутых чанков
+ */
+public class RegionSpatialIndex extends ChunkRegionIndex<RegionSpatialIndex.Bounds> {
+
+    public RegionSpatialIndex(RegionBetter plugin) {
+        super(plugin, new Bounds[0], null);
+    }
+
+    /**
+     * Находит регионы, пересекающиеся с кубоидом min-max
+     * Не кубоидные регионы после проверки AABB уточняются по точной форме
+     */
+    public List<String> getOverlappingRegions(World world, BlockVector3 min, BlockVector3 max) {
+        ChunkBuckets<Bounds> index = getWorldIndex(world);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+
+        int minX = min.x(), minY = min.y(), minZ = min.z();
+        int maxX = max.x(), maxY = max.y(), maxZ = max.z();
+
+        // Порядок сохраняется, регион из нескольких чанков учитывается один раз
+        Map<String, Bounds> hits = new LinkedHashMap<>();
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                for (Bounds bounds : index.getBucket(cx, cz)) {
+                    if (bounds.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                        hits.putIfAbsent(bounds.id, bounds);
+                    }
+                }
+            }
+        }
+        for (Bounds bounds : index.getLarge()) {
+            if (bounds.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                hits.putIfAbsent(bounds.id, bounds);
+            }
+        }
+
+        List<String> result = new ArrayList<>(hits.size());
+        List<ProtectedRegion> shaped = null;
+        for (Bounds bounds : hits.values()) {
+            if (bounds.cuboid) {
+                result.add(bounds.id);
+            } else {
+                if (shaped == null) {
+                    shaped = new ArrayList<>();
+                }
+                shaped.add(bounds.region);
+            }
+        }
+
+        if (shaped != null) {
+            ProtectedCuboidRegion selection = new ProtectedCuboidRegion("temp", min, max);
+            for (ProtectedRegion region : selection.getIntersectingRegions(shaped)) {
+                result.add(region.getId());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Находит регион с наивысшим приоритетом, содержащий точку
+     */
+    public Bounds getHighestRegion(World world, int x, int y, int z) {
+        ChunkBuckets<Bounds> index = getWorldIndex(world);
+        if (index == null) {
+            return null;
+        }
+
+        Bounds best = null;
+        for (Bounds bounds : index.getBucket(x >> 4, z >> 4)) {
+            if ((best == null || bounds.priority > best.priority) && bounds.contains(x, y, z)) {
+                best = bounds;
+            }
+        }
+        for (Bounds bounds : index.getLarge()) {
+            if ((best == null || bounds.priority > best.priority) && bounds.contains(x, y, z)) {
+                best = bounds;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Границы региона по id, null если региона нет в индексе
+     */
+    public Bounds getBounds(World world, String regionId) {
+        ChunkBuckets<Bounds> index = getWorldIndex(world);
+        return index != null ? index.get(regionId) : null;
+    }
+
+    @Override
+    boolean accepts(ProtectedRegion region) {
+        return region.getType() != RegionType.GLOBAL;
+    }
+
+    @Override
+    Bounds create(String worldName, ProtectedRegion region) {
+        return new Bounds(region);
+    }
+
+    @Override
+    String describe() {
+        return "пересечений";
+    }
+
+    /**
+     * Границы региона (AABB) и его объем
+     */
+    public static final class Bounds extends IndexedRegion {
+        private final long volume;
+
+        Bounds(ProtectedRegion region) {
+            super(region);
+            this.volume = cuboid ? cuboidVolume() : polygonVolume(region.getPoints());
+        }
+
+        /**
+         * Квадрат расстояния по горизонтали от точки до границ региона, 0 внутри
+         */
+        public long distanceSquared(int x, int z) {
+            long dx = Math.max(0, Math.max(minX - x, x - maxX));
+            long dz = Math.max(0, Math.max(minZ - z, z - maxZ));
+            return dx * dx + dz * dz;
+        }
+
+        // Объем в long: у больших регионов произведение сторон не помещается в int
+        private long cuboidVolume() {
+            return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        }
+
+        private long polygonVolume(List<BlockVector2> points) {
+            if (points.size() < 3) {
+                return 0;
+            }
+            // Площадь многоугольника по формуле Гаусса, умноженная на высоту
+            long doubledArea = 0;
+            for (int i = 0, j = points.size() - 1; i < points.size(); j = i++) {
+                BlockVector2 a = points.get(j);
+                BlockVector2 b = points.get(i);
+                doubledArea += (long) a.x() * b.z() - (long) b.x() * a.z();
+            }
+            return (long) Math.ceil(Math.abs(doubledArea) / 2.0) * (maxY - minY + 1);
+        }
+
+        public long getVolume() { return volume; }
+    }
+}
@@ -0,0 +1,242 @@
+package com.allfire.regionbetter.index;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionType;
+import org.bukkit.World;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пространственный индекс регионов с флагом regionbetter-view=allow
+ * Регионы разложены по чанкам и заранее отсортированы по приоритету
+ */
+public class ViewRegionIndex extends ChunkRegionIndex<ViewRegionIndex.ViewRegion> {
+
+    // Сначала высокий приоритет, как в ApplicableRegionSet
+    private static final Comparator<ViewRegion> PRIORITY_ORDER =
+        Comparator.comparingInt(ViewRegion::getPriority).reversed().thenComparing(ViewRegion::getId);
+
+    // "мир:регион" -> постоянный номер региона, не меняется при обновлении записи, удаляется вместе с ней
+    private final Map<String, Integer> numbers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextNumber = new AtomicInteger();
+
+    public ViewRegionIndex(RegionBetter plugin) {
+        super(plugin, new ViewRegion[0], PRIORITY_ORDER);
+    }
+
+    /**
+     * Заполняет буфер регионами с флагом, содержащими точку, в порядке приоритета и возвращает их количество
+     * Ничего не выделяет; если регионов больше размера буфера, отбрасываются регионы с меньшим приоритетом
+     */
+    public int getRegions(World world, int x, int y, int z, ViewRegion[] buffer) {
+        ChunkBuckets<ViewRegion> index = getWorldIndex(world);
+        if (index == null) {
+            return 0;
+        }
+
+        // Корзина и список больших регионов отсортированы по приоритету - сливаем их как при сортировке слиянием
+        ViewRegion[] bucket = index.getBucket(x >> 4, z >> 4);
+        ViewRegion[] large = index.getLarge();
+        int count = 0;
+        int i = 0, j = 0;
+        while (count < buffer.length && (i < bucket.length || j < large.length)) {
+            ViewRegion region;
+            if (j >= large.length || (i < bucket.length && PRIORITY_ORDER.compare(bucket[i], large[j]) <= 0)) {
+                region = bucket[i++];
+            } else {
+                region = large[j++];
+            }
+            if (region.contains(x, y, z)) {
+                buffer[count++] = region;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Регионы с флагом, через которые прошел отрезок между центрами двух блоков, в порядке входа
+     * Регионы, содержащие начало или конец отрезка, не включаются - их учитывает обычная проверка точки
+     * Обходятся только чанки вдоль отрезка и список больших регионов; результат пишется в буферы sweep
+     *
+     * @return количество регионов, они доступны через sweep.get(0..n-1)
+     */
+    public int getCrossedRegions(World world, int x0, int y0, int z0, int x1, int y1, int z1, Sweep sweep) {
+        sweep.clear();
+        ChunkBuckets<ViewRegion> index = getWorldIndex(world);
+        if (index == null) {
+            return 0;
+        }
+
+        double sx = x0 + 0.5, sy = y0 + 0.5, sz = z0 + 0.5;
+        double dx = x1 - x0, dy = y1 - y0, dz = z1 - z0;
+
+        int chunks = RegionGeometry.segmentChunks(x0, z0, x1, z1, sweep.chunks(RegionGeometry.segmentChunkCount(x0, z0, x1, z1)));
+        for (int i = 0; i < chunks; i++) {
+            long chunk = sweep.chunks[i];
+            for (ViewRegion region : index.getBucket(RegionGeometry.chunkX(chunk), RegionGeometry.chunkZ(chunk))) {
+                collectCrossing(sweep, region, x0, y0, z0, x1, y1, z1, sx, sy, sz, dx, dy, dz);
+            }
+        }
+        for (ViewRegion region : index.getLarge()) {
+            collectCrossing(sweep, region, x0, y0, z0, x1, y1, z1, sx, sy, sz, dx, dy, dz);
+        }
+        return sweep.count;
+    }
+
+    private static void collectCrossing(Sweep sweep, ViewRegion region,
+                                        int x0, int y0, int z0, int x1, int y1, int z1,
+                                        double sx, double sy, double sz, double dx, double dy, double dz) {
+        if (sweep.contains(region.number) || region.contains(x0, y0, z0) || region.contains(x1, y1, z1)) {
+            return;
+        }
+        double enter = region.segmentEnter(sweep, sx, sy, sz, dx, dy, dz);
+        if (enter >= 0) {
+            sweep.add(region, enter);
+        }
+    }
+
+    @Override
+    boolean accepts(ProtectedRegion region) {
+        var flag = plugin.getRegionBetterViewFlag();
+        return flag != null
+            && region.getType() != RegionType.GLOBAL
+            && region.getFlag(flag) == StateFlag.State.ALLOW;
+    }
+
+    @Override
+    ViewRegion create(String worldName, ProtectedRegion region) {
+        return new ViewRegion(region, number(worldName, region.getId()));
+    }
+
+    @Override
+    String describe() {
+        return "regionbetter-view";
+    }
+
+    @Override
+    void removed(String worldName, ViewRegion region) {
+        numbers.remove(worldName + ":" + region.id);
+    }
+
+    private int number(String worldName, String regionId) {
+        return numbers.computeIfAbsent(worldName + ":" + regionId, key -> nextNumber.getAndIncrement());
+    }
+
+    /**
+     * Регион с флагом, его границы и постоянный номер
+     */
+    public static final class ViewRegion extends IndexedRegion {
+        private final int number;
+
+        ViewRegion(ProtectedRegion region, int number) {
+            super(region);
+            this.number = number;
+        }
+
+        /**
+         * Параметр t (0..1) входа отрезка s + t*d в регион, -1 если отрезок регион не задевает
+         * AABB проверяется методом slab, полигон - по блокам отрезка внутри AABB
+         */
+        double segmentEnter(Sweep sweep, double sx, double sy, double sz, double dx, double dy, double dz) {
+            sweep.rangeMin = 0.0;
+            sweep.rangeMax = 1.0;
+            if (!sweep.clip(sx, dx, minX, maxX + 1)
+                || !sweep.clip(sy, dy, minY, maxY + 1)
+                || !sweep.clip(sz, dz, minZ, maxZ + 1)) {
+                return -1;
+            }
+            if (cuboid) {
+                return sweep.rangeMin;
+            }
+
+            // Шаг не больше блока по самой длинной оси
+            double length = Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz)));
+            double step = length > 0 ? 1.0 / length : 1.0;
+            for (double t = sweep.rangeMin; t <= sweep.rangeMax; t += step) {
+                if (RegionGeometry.polygonContains(pointsX, pointsZ, (int) Math.floor(sx + dx * t), (int) Math.floor(sz + dz * t))) {
+                    return t;
+                }
+            }
+            return -1;
+        }
+
+        public int getNumber() { return number; }
+    }
+
+    /**
+     * Буферы прохода по отрезку, по одному на игрока; используются только потоком, которому принадлежит игрок
+     * Массивы растут лишь при рекордно длинном проходе, обычный проход ничего не выделяет
+     */
+    public static final class Sweep {
+        private long[] chunks = new long[64];
+        private ViewRegion[] regions = new ViewRegion[16];
+        private double[] enters = new double[16];
+        private int count;
+
+        // Диапазон параметра отрезка внутри AABB региона после отсечения по осям
+        private double rangeMin, rangeMax;
+
+        public int size() {
+            return count;
+        }
+
+        public ViewRegion get(int index) {
+            return regions[index];
+        }
+
+        private long[] chunks(int capacity) {
+            if (chunks.length < capacity) {
+                chunks = new long[Math.max(capacity, chunks.length * 2)];
+            }
+            return chunks;
+        }
+
+        private void clear() {
+            Arrays.fill(regions, 0, count, null);
+            count = 0;
+        }
+
+        // Регион может лежать в нескольких чанках отрезка
+        private boolean contains(int number) {
+            for (int i = 0; i < count; i++) {
+                if (regions[i].number == number) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Вставка по порядку входа, регионов на отрезке единицы
+        private void add(ViewRegion region, double enter) {
+            if (count == regions.length) {
+                regions = Arrays.copyOf(regions, count * 2);
+                enters = Arrays.copyOf(enters, count * 2);
+            }
+            int i = count++;
+            while (i > 0 && enters[i - 1] > enter) {
+                regions[i] = regions[i - 1];
+                enters[i] = enters[i - 1];
+                i--;
+            }
+            regions[i] = region;
+            enters[i] = enter;
+        }
+
+        private boolean clip(double start, double delta, double min, double max) {
+            if (delta == 0) {
+                return start >= min && start < max;
+            }
+            double t1 = (min - start) / delta;
+            double t2 = (max - start) / delta;
+            rangeMin = Math.max(rangeMin, Math.min(t1, t2));
+            rangeMax = Math.min(rangeMax, Math.max(t1, t2));
+            return rangeMin <= rangeMax;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.allfire.regionbetter.listeners;
+
+import com.allfire.regionbetter.RegionBetter;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+
+/**
+ * Синхронизация кэшированных лимитов прав с LuckPerms
+ * Загружается только при установленном LuckPerms
+ */
+public class LuckPermsListener {
+
+    private final RegionBetter plugin;
+
+    public LuckPermsListener(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Подписка на события пересчета данных LuckPerms
+     */
+    public void register() {
+        LuckPerms luckPerms = LuckPermsProvider.get();
+        luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class, this::onUserDataRecalculate);
+        luckPerms.getEventBus().subscribe(plugin, GroupDataRecalculateEvent.class, this::onGroupDataRecalculate);
+    }
+
+    private void onUserDataRecalculate(UserDataRecalculateEvent event) {
+        plugin.getLimitManager().scheduleRefresh(event.getUser().getUniqueId());
+    }
+
+    private void onGroupDataRecalculate(GroupDataRecalculateEvent event) {
+        // Изменение группы может затронуть любого игрока онлайн
+        plugin.getLimitManager().scheduleRefreshAll();
+    }
+}
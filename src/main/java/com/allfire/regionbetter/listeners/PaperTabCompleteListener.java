@@ -0,0 +1,74 @@
+package com.allfire.regionbetter.listeners;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.allfire.regionbetter.commands.RegionCommand;
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Serves region-name completions from Paper's async tab-complete event,
+ * so the region index is queried off the main thread.
+ * Other arguments fall through to RegionCommand.onTabComplete.
+ */
+public class PaperTabCompleteListener implements Listener {
+
+    private static final Set<String> REGION_ARGUMENT_COMMANDS = Set.of(
+        "delete", "addowner", "addmember", "removeowner", "removemember", "info", "glow"
+    );
+
+    private final RegionCommand regionCommand;
+    private final Set<String> labels = new HashSet<>();
+
+    public PaperTabCompleteListener(RegionBetter plugin, RegionCommand regionCommand) {
+        this.regionCommand = regionCommand;
+
+        PluginCommand command = plugin.getCommand("region");
+        if (command != null) {
+            labels.add(command.getName().toLowerCase(Locale.ROOT));
+            for (String alias : command.getAliases()) {
+                labels.add(alias.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    @EventHandler
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (!event.isCommand() || event.isHandled() || !(event.getSender() instanceof Player player)) {
+            return;
+        }
+
+        String buffer = event.getBuffer();
+        if (buffer.startsWith("/")) {
+            buffer = buffer.substring(1);
+        }
+
+        // Only "<label> <subcommand> <partial region name>"
+        String[] parts = buffer.split(" ", -1);
+        if (parts.length != 3) {
+            return;
+        }
+
+        String label = parts[0].toLowerCase(Locale.ROOT);
+        int namespace = label.indexOf(':');
+        if (namespace >= 0) {
+            label = label.substring(namespace + 1);
+        }
+        String subCommand = parts[1].toLowerCase(Locale.ROOT);
+        if (!labels.contains(label) || !REGION_ARGUMENT_COMMANDS.contains(subCommand)) {
+            return;
+        }
+        if (!player.hasPermission("regionbetter.use")) {
+            return;
+        }
+
+        event.setCompletions(regionCommand.completeRegionNames(player, subCommand, parts[2]));
+        event.setHandled(true);
+    }
+}
@@ -0,0 +1,160 @@
+package com.allfire.regionbetter.listeners;
+
+import com.allfire.regionbetter.RegionBetter;
+import org.bukkit.World;
+import org.bukkit.command.Command;
+import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Подхватывает изменения регионов командами WorldGuard, не дожидаясь периодической сверки
+ * Реагирует только на изменяющие подкоманды /rg и сверяет затронутый регион, а не весь мир;
+ * изменения через API WorldGuard подхватывает периодическая сверка индексов
+ */
+public class WorldGuardChangeListener implements Listener {
+
+    // Подкоманды, меняющие один регион: id идет первым аргументом после флагов
+    private static final Set<String> REGION_SUBCOMMANDS = Set.of(
+        "define", "def", "d", "create",
+        "redefine", "update", "move",
+        "claim",
+        "remove", "rem", "delete", "del",
+        "flag", "f",
+        "setpriority", "priority", "pri",
+        "addowner", "ao",
+        "removeowner", "remowner", "ro",
+        "addmember", "addmem", "am",
+        "removemember", "remmember", "removemem", "remmem", "rm"
+    );
+
+    // Подкоманды, перечитывающие регионы мира целиком
+    private static final Set<String> WORLD_SUBCOMMANDS = Set.of(
+        "load", "reload", "migratedb", "migrateuuid", "migrateheights"
+    );
+
+    // Флаги /rg flag со значением: -g <группа> и -h <страница>
+    private static final Set<String> FLAG_VALUE_OPTIONS = Set.of("-g", "-h");
+
+    // WorldGuard добавляет и удаляет регионы командами в своем пуле потоков - регион сверяется повторно
+    private static final long RETRY_DELAY = 20L;
+
+    private final RegionBetter plugin;
+
+    public WorldGuardChangeListener(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        String commandLine = event.getMessage().startsWith("/") ? event.getMessage().substring(1) : event.getMessage();
+        handle(commandLine, event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onServerCommand(ServerCommandEvent event) {
+        handle(event.getCommand(), null);
+    }
+
+    /**
+     * @param player отправитель команды, null для консоли (без -w мир неизвестен)
+     */
+    private void handle(String commandLine, Player player) {
+        String[] args = commandLine.trim().split("\\s+");
+        if (args.length < 2 || !isRegionCommand(args[0])) {
+            return;
+        }
+
+        String subcommand = args[1].toLowerCase(Locale.ROOT);
+        boolean region = REGION_SUBCOMMANDS.contains(subcommand);
+        if (!region && !WORLD_SUBCOMMANDS.contains(subcommand)) {
+            // info, list, select, teleport и прочие команды регионы не меняют
+            return;
+        }
+
+        String worldName = null;
+        String regionId = null;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equalsIgnoreCase("-w") && i + 1 < args.length) {
+                worldName = args[++i];
+            } else if (arg.startsWith("-") && arg.length() > 1) {
+                if (FLAG_VALUE_OPTIONS.contains(arg.toLowerCase(Locale.ROOT)) && subcommand.startsWith("f")) {
+                    i++;
+                }
+            } else if (regionId == null) {
+                regionId = arg;
+            }
+        }
+
+        if (!region) {
+            // /rg load [мир] - мир можно указать и без -w
+            World world = plugin.getServer().getWorld(worldName != null ? worldName : regionId != null ? regionId : "");
+            scheduleWorld(world);
+            return;
+        }
+
+        World world = worldName != null ? plugin.getServer().getWorld(worldName) : player != null ? player.getWorld() : null;
+        if (world == null || regionId == null) {
+            return;
+        }
+
+        // /rg remove -f удаляет и дочерние регионы, их id в команде нет
+        if (subcommand.startsWith("rem") || subcommand.startsWith("del")) {
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equalsIgnoreCase("-f")) {
+                    scheduleWorld(world);
+                    return;
+                }
+            }
+        }
+
+        scheduleRegion(world, regionId);
+    }
+
+    private boolean isRegionCommand(String label) {
+        Command command = plugin.getServer().getCommandMap().getCommand(label.toLowerCase(Locale.ROOT));
+        return command instanceof PluginIdentifiableCommand identifiable
+            && "WorldGuard".equals(identifiable.getPlugin().getName())
+            && (command.getName().equalsIgnoreCase("region") || command.getAliases().contains("rg"));
+    }
+
+    /**
+     * Команда выполняется после события, поэтому сверка ждет следующего тика
+     */
+    private void scheduleRegion(World world, String regionId) {
+        String worldName = world.getName();
+        Runnable task = () -> {
+            World loaded = plugin.getServer().getWorld(worldName);
+            if (loaded != null) {
+                plugin.getIndexReconciler().reconcile(loaded, regionId);
+            }
+        };
+        plugin.getServer().getScheduler().runTask(plugin, task);
+        plugin.getServer().getScheduler().runTaskLater(plugin, task, RETRY_DELAY);
+    }
+
+    /**
+     * @param world null - все загруженные миры
+     */
+    private void scheduleWorld(World world) {
+        String worldName = world != null ? world.getName() : null;
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (worldName == null) {
+                plugin.getIndexReconciler().reconcile();
+                return;
+            }
+            World loaded = plugin.getServer().getWorld(worldName);
+            if (loaded != null) {
+                plugin.getIndexReconciler().reconcile(loaded);
+            }
+        }, RETRY_DELAY);
+    }
+}
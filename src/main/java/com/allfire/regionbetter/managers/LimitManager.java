@@ -0,0 +1,175 @@
+package com.allfire.regionbetter.managers;
+
+import com.allfire.regionbetter.RegionBetter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LimitManager {
+
+    private static final String SELECTION_PREFIX = "regionbetter.selection.";
+    private static final String REGION_PREFIX = "regionbetter.region.";
+
+    private final RegionBetter plugin;
+
+    // Снимки лимитов, обновляются при входе игрока и пересчете прав в LuckPerms
+    private final Map<UUID, PlayerLimits> limitsCache = new ConcurrentHashMap<>();
+
+    // Игроки, для которых уже запланирован пересчет лимитов
+    private final Set<UUID> pendingRefresh = ConcurrentHashMap.newKeySet();
+
+    public LimitManager(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Лимиты игрока, вычисленные из прав regionbetter.selection.<n> и regionbetter.region.<n>
+     * 0 означает, что лимит не задан
+     */
+    public record PlayerLimits(int maxBlocks, int maxRegions) {
+        public static final PlayerLimits NONE = new PlayerLimits(0, 0);
+    }
+
+    /**
+     * Получает максимальное количество блоков в выделении
+     */
+    public int getMaxBlocks(Player player) {
+        return getLimits(player).maxBlocks();
+    }
+
+    /**
+     * Получает максимальное количество регионов
+     */
+    public int getMaxRegions(Player player) {
+        return getLimits(player).maxRegions();
+    }
+
+    /**
+     * Получает лимиты игрока из кэша, вычисляя их при первом обращении
+     */
+    public PlayerLimits getLimits(Player player) {
+        return limitsCache.computeIfAbsent(player.getUniqueId(), uuid -> resolveLimits(player));
+    }
+
+    /**
+     * Получает снимок лимитов без проверки прав (для заполнителей)
+     * Если снимка еще нет, планирует его вычисление в основном потоке
+     */
+    public PlayerLimits getSnapshot(UUID uuid) {
+        PlayerLimits limits = limitsCache.get(uuid);
+        if (limits == null) {
+            scheduleRefresh(uuid);
+            return PlayerLimits.NONE;
+        }
+        return limits;
+    }
+
+    /**
+     * Получает снимок лимитов без проверки прав и без планирования пересчета
+     * Возвращает null, если снимка еще нет
+     */
+    public PlayerLimits getCached(UUID uuid) {
+        return limitsCache.get(uuid);
+    }
+
+    /**
+     * Пересчитывает снимок лимитов игрока (вызывается при входе и смене прав)
+     */
+    public void refresh(Player player) {
+        limitsCache.put(player.getUniqueId(), resolveLimits(player));
+        plugin.getPlaceholderCache().invalidate(player.getUniqueId());
+    }
+
+    /**
+     * Планирует пересчет лимитов в основном потоке, повторные запросы объединяются
+     */
+    public void scheduleRefresh(UUID uuid) {
+        if (!pendingRefresh.add(uuid)) {
+            return;
+        }
+
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            pendingRefresh.remove(uuid);
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null && player.isOnline()) {
+                refresh(player);
+            } else {
+                invalidate(uuid);
+            }
+        });
+    }
+
+    /**
+     * Планирует пересчет лимитов всех игроков онлайн
+     */
+    public void scheduleRefreshAll() {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                refresh(player);
+            }
+        });
+    }
+
+    /**
+     * Вычисляет лимиты за один проход по эффективным правам игрока
+     */
+    public PlayerLimits resolveLimits(Player player) {
+        int maxBlocks = 0;
+        int maxRegions = 0;
+
+        for (PermissionAttachmentInfo info : player.getEffectivePermissions()) {
+            if (!info.getValue()) {
+                continue;
+            }
+
+            String permission = info.getPermission();
+            if (permission.startsWith(SELECTION_PREFIX)) {
+                maxBlocks = Math.max(maxBlocks, parseLimit(permission, SELECTION_PREFIX.length()));
+            } else if (permission.startsWith(REGION_PREFIX)) {
+                maxRegions = Math.max(maxRegions, parseLimit(permission, REGION_PREFIX.length()));
+            }
+        }
+
+        if (plugin.getConfigManager().isDebug()) {
+            plugin.getLogger().info("Лимиты игрока " + player.getName() + ": блоков " + maxBlocks + ", регионов " + maxRegions);
+        }
+
+        return new PlayerLimits(maxBlocks, maxRegions);
+    }
+
+    /**
+     * Разбирает числовой суффикс права, нечисловые права (view, create, use) пропускаются
+     */
+    private int parseLimit(String permission, int offset) {
+        int length = permission.length();
+        if (offset >= length) {
+            return 0;
+        }
+
+        long value = 0;
+        for (int i = offset; i < length; i++) {
+            char c = permission.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+            if (value >= Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * Сбрасывает кэш лимитов игрока
+     */
+    public void invalidate(UUID uuid) {
+        limitsCache.remove(uuid);
+        plugin.getPlaceholderCache().invalidate(uuid);
+    }
+}
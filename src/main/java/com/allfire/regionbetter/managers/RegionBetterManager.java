@@ -1,6 +1,7 @@
 package com.allfire.regionbetter.managers;
 
 import com.allfire.regionbetter.RegionBetter;
+import com.allfire.regionbetter.config.FlagPreset;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldguard.WorldGuard;
@@ -8,7 +9,7 @@ import com.sk89q.worldguard.protection.managers.RegionManager;
 import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.protection.regions.RegionContainer;
-import org.bukkit.Bukkit;
+import com.sk89q.worldguard.protection.regions.RegionType;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
@@ -16,6 +17,7 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class RegionBetterManager {
     
@@ -26,12 +28,47 @@ public class RegionBetterManager {
     }
     
     /**
-     * Создает новый регион
+     * Создает новый регион (в основном потоке)
      */
     public boolean createRegion(Player player, String regionName, Location pos1, Location pos2) {
+        // ========== ПРОВЕРКИ БЕЗОПАСНОСТИ ==========
+        LimitManager.PlayerLimits limits = plugin.getLimitManager().getLimits(player);
+
+        // 1. Проверка максимального количества блоков
+        long selectionBlocks = calculateSelectionBlocks(pos1, pos2);
+        if (!checkMaxBlocks(player.getName(), limits.maxBlocks(), selectionBlocks)) {
+            return false; // Превышен лимит блоков
+        }
+
+        // 2. Проверка максимального количества регионов
+        if (!checkMaxRegions(player.getWorld(), player.getUniqueId(), player.getName(), limits.maxRegions())) {
+            return false; // Превышен лимит регионов
+        }
+
+        // 3. Проверка пересечения с другими регионами (перенесена в RegionCreationPipeline)
+
+        BlockVector3 min = BlockVector3.at(
+            Math.min(pos1.getBlockX(), pos2.getBlockX()),
+            Math.min(pos1.getBlockY(), pos2.getBlockY()),
+            Math.min(pos1.getBlockZ(), pos2.getBlockZ())
+        );
+        BlockVector3 max = BlockVector3.at(
+            Math.max(pos1.getBlockX(), pos2.getBlockX()),
+            Math.max(pos1.getBlockY(), pos2.getBlockY()),
+            Math.max(pos1.getBlockZ(), pos2.getBlockZ())
+        );
+
+        return commitRegion(player, player.getWorld(), regionName, min, max);
+    }
+
+    /**
+     * Добавляет проверенный регион в WorldGuard: владелец, флаги, индексы
+     * Вызывается только в основном потоке, сохранение выполняется отложенно
+     */
+    public boolean commitRegion(Player player, World world, String regionName, BlockVector3 min, BlockVector3 max) {
         try {
             RegionManager regionManager = WorldGuard.getInstance().getPlatform()
-                .getRegionContainer().get(BukkitAdapter.adapt(player.getWorld()));
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
             
             if (regionManager == null) {
                 return false;
@@ -41,45 +78,11 @@ public class RegionBetterManager {
             if (regionManager.hasRegion(regionName)) {
                 return false; // Регион уже существует
             }
-            
-            // ========== ПРОВЕРКИ БЕЗОПАСНОСТИ ==========
-            
-            // 1. Проверка максимального количества блоков
-            int selectionBlocks = calculateSelectionBlocks(pos1, pos2);
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
-                plugin.getLogger().info("Проверка блоков: " + selectionBlocks + " блоков в выделении");
-            }
-            if (!checkMaxBlocks(player, selectionBlocks)) {
-                plugin.getLogger().warning("Превышен лимит блоков для игрока " + player.getName());
-                return false; // Превышен лимит блоков
-            }
-            
-            // 2. Проверка максимального количества регионов
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
-                plugin.getLogger().info("Проверка лимита регионов для игрока " + player.getName());
-            }
-            if (!checkMaxRegions(player)) {
-                plugin.getLogger().warning("Превышен лимит регионов для игрока " + player.getName());
-                return false; // Превышен лимит регионов
-            }
-            
-            // 3. Проверка пересечения с другими регионами (перенесена в PlayerListener)
-
-            BlockVector3 min = BlockVector3.at(
-                Math.min(pos1.getBlockX(), pos2.getBlockX()),
-                Math.min(pos1.getBlockY(), pos2.getBlockY()),
-                Math.min(pos1.getBlockZ(), pos2.getBlockZ())
-            );
-            BlockVector3 max = BlockVector3.at(
-                Math.max(pos1.getBlockX(), pos2.getBlockX()),
-                Math.max(pos1.getBlockY(), pos2.getBlockY()),
-                Math.max(pos1.getBlockZ(), pos2.getBlockZ())
-            );
 
             ProtectedCuboidRegion region = new ProtectedCuboidRegion(regionName, min, max);
             
             // Set priority from config (как в eRegions)
-            int priority = plugin.getConfigManager().getConfig().getInt("RegionSettints.Default-priority", 0);
+            int priority = plugin.getConfigManager().getSnapshot().region().defaultPriority();
             region.setPriority(priority);
             
             // Set owner (как в eRegions)
@@ -87,33 +90,29 @@ public class RegionBetterManager {
             
             // Add region to manager FIRST (как в eRegions)
             regionManager.addRegion(region);
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            plugin.getOwnershipIndex().addRegion(world, region);
+            plugin.getSpatialIndex().update(world, region);
+            plugin.getRegionTracker().invalidateRegions(world, region.getId());
+            plugin.getNameIndex().add(world, region);
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("Регион добавлен в менеджер: " + regionName);
             }
             
             // Apply default flags from config (как в eRegions)
-            List<String> defaultFlags = plugin.getConfigManager().getConfig().getStringList("RegionSettints.Default-flags");
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            // Набор разобран при загрузке конфига и применяется к региону в памяти за один проход
+            FlagPreset defaultFlags = plugin.getConfigManager().getSnapshot().region().defaultFlags();
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("Применяем " + defaultFlags.size() + " флагов по умолчанию");
             }
-            for (String flagString : defaultFlags) {
-                String[] parts = flagString.split("=");
-                if (parts.length == 2) {
-                    String flagName = parts[0].trim();
-                    String flagValue = parts[1].trim();
-                    
-                    // Add the flag to region
-                    addRegionFlag(player.getWorld(), regionName, flagName, flagValue);
-                }
-            }
+            defaultFlags.applyTo(region);
             
             // Автоматически устанавливаем флаг regionbetter-view если включено в конфиге
-            if (plugin.getConfigManager().getConfig().getBoolean("RegionSettints.Instal-flags", false)) {
+            if (plugin.getConfigManager().getSnapshot().region().installFlags()) {
                 try {
                     var flag = plugin.getRegionBetterViewFlag();
                     if (flag != null) {
                         region.setFlag(flag, com.sk89q.worldguard.protection.flags.StateFlag.State.ALLOW);
-                        if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                        if (plugin.getConfigManager().isDebug()) {
                             plugin.getLogger().info("Флаг regionbetter-view установлен");
                         }
                     }
@@ -124,18 +123,20 @@ public class RegionBetterManager {
             
             // Set creator flag (как в eRegions)
             setRegionCreator(region, player.getName());
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("Creator flag установлен");
             }
             
-            // Save changes to WorldGuard (как в eRegions)
-            regionManager.save();
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
-                plugin.getLogger().info("Изменения сохранены в WorldGuard");
-            }
+            // Обновляем индекс regionbetter-view после установки флагов
+            plugin.getViewRegionIndex().update(world, region);
+            plugin.getFlagRenderer().invalidate(world, region.getId());
+            plugin.getPlaceholderCache().invalidateAll();
+            
+            // Сохранение в WorldGuard выполняется отложенно одним вызовом на мир
+            plugin.getSaveScheduler().markDirty(world, regionManager);
             
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
-                plugin.getLogger().info("Регион " + regionName + " успешно создан игроком " + player.getName() + " в мире " + player.getWorld().getName());
+            if (plugin.getConfigManager().isDebug()) {
+                plugin.getLogger().info("Регион " + regionName + " успешно создан игроком " + player.getName() + " в мире " + world.getName());
             }
             return true;
 
@@ -169,6 +170,14 @@ public class RegionBetterManager {
             }
 
             regionManager.removeRegion(regionName);
+            plugin.getOwnershipIndex().removeRegion(player.getWorld(), region);
+            plugin.getViewRegionIndex().remove(player.getWorld(), region.getId());
+            plugin.getSpatialIndex().remove(player.getWorld(), region.getId());
+            plugin.getRegionTracker().invalidateRegions(player.getWorld(), region.getId());
+            plugin.getNameIndex().remove(player.getWorld(), region.getId());
+            plugin.getFlagRenderer().invalidate(player.getWorld(), region.getId());
+            plugin.getPlaceholderCache().invalidateAll();
+            plugin.getSaveScheduler().markDirty(player.getWorld(), regionManager);
             return true;
 
         } catch (Exception e) {
@@ -179,11 +188,24 @@ public class RegionBetterManager {
     
     /**
      * Добавляет владельца в регион
+     * UUID игрока разрешается через кэш имен, результат передается в callback в основном потоке, если игрок еще в сети
      */
-    public boolean addOwner(Player player, String regionName, String targetPlayerName) {
+    public void addOwner(Player player, String regionName, String targetPlayerName, Consumer<Boolean> callback) {
+        // Мир и владелец фиксируются при вызове команды: UUID может разрешаться асинхронно
+        World world = player.getWorld();
+        UUID actor = player.getUniqueId();
+        plugin.getNameCache().resolveUuid(targetPlayerName, targetUUID -> {
+            boolean success = addOwner(world, actor, regionName, targetUUID);
+            if (player.isOnline()) {
+                callback.accept(success);
+            }
+        });
+    }
+    
+    private boolean addOwner(World world, UUID actor, String regionName, UUID targetUUID) {
         try {
             RegionManager regionManager = WorldGuard.getInstance().getPlatform()
-                .getRegionContainer().get(BukkitAdapter.adapt(player.getWorld()));
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
             
             if (regionManager == null) {
                 return false;
@@ -195,13 +217,14 @@ public class RegionBetterManager {
             }
             
             // Проверяем, является ли игрок владельцем
-            if (!region.getOwners().contains(player.getUniqueId())) {
-                    return false;
-                }
+            if (!region.getOwners().contains(actor)) {
+                return false;
+            }
 
-            // Получаем UUID целевого игрока
-            UUID targetUUID = Bukkit.getOfflinePlayer(targetPlayerName).getUniqueId();
-                region.getOwners().addPlayer(targetUUID);
+            region.getOwners().addPlayer(targetUUID);
+            plugin.getOwnershipIndex().addOwner(world, targetUUID, region.getId());
+            plugin.getPlaceholderCache().invalidate(targetUUID);
+            plugin.getSaveScheduler().markDirty(world, regionManager);
             return true;
 
         } catch (Exception e) {
@@ -212,11 +235,24 @@ public class RegionBetterManager {
     
     /**
      * Добавляет участника в регион
+     * UUID игрока разрешается через кэш имен, результат передается в callback в основном потоке, если игрок еще в сети
      */
-    public boolean addMember(Player player, String regionName, String targetPlayerName) {
+    public void addMember(Player player, String regionName, String targetPlayerName, Consumer<Boolean> callback) {
+        // Мир и владелец фиксируются при вызове команды: UUID может разрешаться асинхронно
+        World world = player.getWorld();
+        UUID actor = player.getUniqueId();
+        plugin.getNameCache().resolveUuid(targetPlayerName, targetUUID -> {
+            boolean success = addMember(world, actor, regionName, targetUUID);
+            if (player.isOnline()) {
+                callback.accept(success);
+            }
+        });
+    }
+    
+    private boolean addMember(World world, UUID actor, String regionName, UUID targetUUID) {
         try {
             RegionManager regionManager = WorldGuard.getInstance().getPlatform()
-                .getRegionContainer().get(BukkitAdapter.adapt(player.getWorld()));
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
             
             if (regionManager == null) {
                 return false;
@@ -228,13 +264,14 @@ public class RegionBetterManager {
             }
             
             // Проверяем, является ли игрок владельцем
-            if (!region.getOwners().contains(player.getUniqueId())) {
-                    return false;
-                }
+            if (!region.getOwners().contains(actor)) {
+                return false;
+            }
 
-            // Получаем UUID целевого игрока
-            UUID targetUUID = Bukkit.getOfflinePlayer(targetPlayerName).getUniqueId();
-                region.getMembers().addPlayer(targetUUID);
+            region.getMembers().addPlayer(targetUUID);
+            plugin.getOwnershipIndex().addMember(world, targetUUID, region.getId());
+            plugin.getPlaceholderCache().invalidate(targetUUID);
+            plugin.getSaveScheduler().markDirty(world, regionManager);
             return true;
 
         } catch (Exception e) {
@@ -245,11 +282,24 @@ public class RegionBetterManager {
     
     /**
      * Удаляет владельца из региона
+     * UUID игрока разрешается через кэш имен, результат передается в callback в основном потоке, если игрок еще в сети
      */
-    public boolean removeOwner(Player player, String regionName, String targetPlayerName) {
+    public void removeOwner(Player player, String regionName, String targetPlayerName, Consumer<Boolean> callback) {
+        // Мир и владелец фиксируются при вызове команды: UUID может разрешаться асинхронно
+        World world = player.getWorld();
+        UUID actor = player.getUniqueId();
+        plugin.getNameCache().resolveUuid(targetPlayerName, targetUUID -> {
+            boolean success = removeOwner(world, actor, regionName, targetUUID);
+            if (player.isOnline()) {
+                callback.accept(success);
+            }
+        });
+    }
+    
+    private boolean removeOwner(World world, UUID actor, String regionName, UUID targetUUID) {
         try {
             RegionManager regionManager = WorldGuard.getInstance().getPlatform()
-                .getRegionContainer().get(BukkitAdapter.adapt(player.getWorld()));
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
             
             if (regionManager == null) {
                 return false;
@@ -261,13 +311,14 @@ public class RegionBetterManager {
             }
             
             // Проверяем, является ли игрок владельцем
-            if (!region.getOwners().contains(player.getUniqueId())) {
-                    return false;
-                }
+            if (!region.getOwners().contains(actor)) {
+                return false;
+            }
 
-            // Получаем UUID целевого игрока
-            UUID targetUUID = Bukkit.getOfflinePlayer(targetPlayerName).getUniqueId();
-                region.getOwners().removePlayer(targetUUID);
+            region.getOwners().removePlayer(targetUUID);
+            plugin.getOwnershipIndex().removeOwner(world, targetUUID, region.getId());
+            plugin.getPlaceholderCache().invalidate(targetUUID);
+            plugin.getSaveScheduler().markDirty(world, regionManager);
             return true;
 
         } catch (Exception e) {
@@ -278,11 +329,24 @@ public class RegionBetterManager {
     
     /**
      * Удаляет участника из региона
+     * UUID игрока разрешается через кэш имен, результат передается в callback в основном потоке, если игрок еще в сети
      */
-    public boolean removeMember(Player player, String regionName, String targetPlayerName) {
+    public void removeMember(Player player, String regionName, String targetPlayerName, Consumer<Boolean> callback) {
+        // Мир и владелец фиксируются при вызове команды: UUID может разрешаться асинхронно
+        World world = player.getWorld();
+        UUID actor = player.getUniqueId();
+        plugin.getNameCache().resolveUuid(targetPlayerName, targetUUID -> {
+            boolean success = removeMember(world, actor, regionName, targetUUID);
+            if (player.isOnline()) {
+                callback.accept(success);
+            }
+        });
+    }
+    
+    private boolean removeMember(World world, UUID actor, String regionName, UUID targetUUID) {
         try {
             RegionManager regionManager = WorldGuard.getInstance().getPlatform()
-                .getRegionContainer().get(BukkitAdapter.adapt(player.getWorld()));
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
             
             if (regionManager == null) {
                 return false;
@@ -294,13 +358,14 @@ public class RegionBetterManager {
             }
             
             // Проверяем, является ли игрок владельцем
-            if (!region.getOwners().contains(player.getUniqueId())) {
-                    return false;
-                }
+            if (!region.getOwners().contains(actor)) {
+                return false;
+            }
 
-            // Получаем UUID целевого игрока
-            UUID targetUUID = Bukkit.getOfflinePlayer(targetPlayerName).getUniqueId();
-                region.getMembers().removePlayer(targetUUID);
+            region.getMembers().removePlayer(targetUUID);
+            plugin.getOwnershipIndex().removeMember(world, targetUUID, region.getId());
+            plugin.getPlaceholderCache().invalidate(targetUUID);
+            plugin.getSaveScheduler().markDirty(world, regionManager);
             return true;
 
         } catch (Exception e) {
@@ -351,32 +416,15 @@ public class RegionBetterManager {
     }
 
     /**
-     * Получает регионы игрока
+     * Получает регионы игрока из индекса владельцев
      */
     public List<String> getPlayerRegions(Player player, boolean owned, boolean member) {
-        List<String> regions = new ArrayList<>();
-        
         try {
-            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
-                .getRegionContainer().get(BukkitAdapter.adapt(player.getWorld()));
-            
-            if (regionManager == null) {
-                return regions;
-            }
-            
-            for (ProtectedRegion region : regionManager.getRegions().values()) {
-                if (owned && region.getOwners().contains(player.getUniqueId())) {
-                        regions.add(region.getId());
-                } else if (member && region.getMembers().contains(player.getUniqueId())) {
-                        regions.add(region.getId());
-                    }
-                }
-
+            return plugin.getOwnershipIndex().getPlayerRegions(player.getWorld(), player.getUniqueId(), owned, member);
         } catch (Exception e) {
             plugin.getLogger().severe("Ошибка при получении регионов игрока: " + e.getMessage());
+            return new ArrayList<>();
         }
-        
-        return regions;
     }
     
     /**
@@ -396,19 +444,11 @@ public class RegionBetterManager {
                 }
 
         public List<String> getOwners() {
-            List<String> owners = new ArrayList<>();
-            for (UUID uuid : region.getOwners().getUniqueIds()) {
-                owners.add(Bukkit.getOfflinePlayer(uuid).getName());
-            }
-            return owners;
+            return cachedNames(region.getOwners().getUniqueIds());
         }
 
         public List<String> getMembers() {
-            List<String> members = new ArrayList<>();
-            for (UUID uuid : region.getMembers().getUniqueIds()) {
-                members.add(Bukkit.getOfflinePlayer(uuid).getName());
-            }
-            return members;
+            return cachedNames(region.getMembers().getUniqueIds());
         }
 
         public List<String> getFlags() {
@@ -419,17 +459,17 @@ public class RegionBetterManager {
             return flags;
         }
 
-        public int getVolume() {
+        public long getVolume() {
             // Вычисляем объем вручную, так как getVolume() не существует в WorldGuard API
             try {
                 // Получаем минимальные и максимальные координаты
                 com.sk89q.worldedit.math.BlockVector3 min = region.getMinimumPoint();
                 com.sk89q.worldedit.math.BlockVector3 max = region.getMaximumPoint();
                 
-                // Вычисляем объем: (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1)
-                int width = max.x() - min.x() + 1;
-                int height = max.y() - min.y() + 1;
-                int length = max.z() - min.z() + 1;
+                // Вычисляем объем в long: (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1)
+                long width = max.x() - min.x() + 1;
+                long height = max.y() - min.y() + 1;
+                long length = max.z() - min.z() + 1;
                 
                 return width * height * length;
         } catch (Exception e) {
@@ -450,36 +490,26 @@ public class RegionBetterManager {
     /**
      * Вычисляет количество блоков в выделении
      */
-    private int calculateSelectionBlocks(Location pos1, Location pos2) {
-        int width = Math.abs(pos1.getBlockX() - pos2.getBlockX()) + 1;
-        int height = Math.abs(pos1.getBlockY() - pos2.getBlockY()) + 1;
-        int length = Math.abs(pos1.getBlockZ() - pos2.getBlockZ()) + 1;
+    long calculateSelectionBlocks(Location pos1, Location pos2) {
+        long width = Math.abs(pos1.getBlockX() - pos2.getBlockX()) + 1L;
+        long height = Math.abs(pos1.getBlockY() - pos2.getBlockY()) + 1L;
+        long length = Math.abs(pos1.getBlockZ() - pos2.getBlockZ()) + 1L;
         return width * height * length;
     }
     
     /**
      * Проверяет максимальное количество блоков
+     * Не обращается к правам игрока, поэтому безопасна вне основного потока
      */
-    private boolean checkMaxBlocks(Player player, int selectionBlocks) {
-        // Получаем максимальное количество блоков из прав LuckPerms
-        int maxBlocks = getMaxBlocksFromPermissions(player);
-        
-        if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+    boolean checkMaxBlocks(String playerName, int maxBlocks, long selectionBlocks) {
+        if (plugin.getConfigManager().isDebug()) {
             plugin.getLogger().info("Проверка блоков: " + selectionBlocks + " блоков в выделении");
-            plugin.getLogger().info("Максимальное количество блоков для игрока " + player.getName() + ": " + maxBlocks);
-            
-            // Отладочная информация о правах игрока
-            plugin.getLogger().info("Права игрока " + player.getName() + " на блоки:");
-            for (int i = 10; i <= 10000; i += 1000) {
-                if (player.hasPermission("regionbetter.selection." + i)) {
-                    plugin.getLogger().info("  - regionbetter.selection." + i + ": ЕСТЬ");
-                }
-            }
+            plugin.getLogger().info("Максимальное количество блоков для игрока " + playerName + ": " + maxBlocks);
         }
         
         if (maxBlocks > 0 && selectionBlocks > maxBlocks) {
             plugin.getLogger().warning("Превышен лимит блоков: " + selectionBlocks + " > " + maxBlocks);
-            plugin.getLogger().warning("Превышен лимит блоков для игрока " + player.getName());
+            plugin.getLogger().warning("Превышен лимит блоков для игрока " + playerName);
             return false;
         }
         
@@ -488,23 +518,22 @@ public class RegionBetterManager {
     
     /**
      * Проверяет максимальное количество регионов
+     * Использует индекс владельцев, поэтому безопасна вне основного потока
      */
-    private boolean checkMaxRegions(Player player) {
-        // Получаем максимальное количество регионов из прав LuckPerms
-        int maxRegions = getMaxRegionsFromPermissions(player);
-        
-        if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
-            plugin.getLogger().info("Максимальное количество регионов для игрока " + player.getName() + ": " + maxRegions);
+    boolean checkMaxRegions(World world, UUID uuid, String playerName, int maxRegions) {
+        if (plugin.getConfigManager().isDebug()) {
+            plugin.getLogger().info("Максимальное количество регионов для игрока " + playerName + ": " + maxRegions);
         }
         
         if (maxRegions > 0) {
-            int currentRegions = getPlayerRegions(player, true, true).size();
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
-                plugin.getLogger().info("Текущее количество регионов игрока " + player.getName() + ": " + currentRegions);
+            int currentRegions = plugin.getOwnershipIndex().getPlayerRegions(world, uuid, true, true).size();
+            if (plugin.getConfigManager().isDebug()) {
+                plugin.getLogger().info("Текущее количество регионов игрока " + playerName + ": " + currentRegions);
             }
             
             if (currentRegions >= maxRegions) {
                 plugin.getLogger().warning("Превышен лимит регионов: " + currentRegions + " >= " + maxRegions);
+                plugin.getLogger().warning("Превышен лимит регионов для игрока " + playerName);
                 return false;
             }
         }
@@ -513,33 +542,40 @@ public class RegionBetterManager {
     }
     
     /**
-     * Проверяет пересечение с другими регионами
+     * Точная проверка пересечений по WorldGuard, только в основном потоке
+     * Индекс узнает о регионах из /rg define, /rg redefine и других плагинов лишь при сверке,
+     * поэтому перед добавлением региона пересечения проверяются еще раз напрямую
+     *
+     * @return Список названий пересекающихся регионов
      */
-    private boolean checkRegionOverlap(RegionManager regionManager, Location pos1, Location pos2) {
-        // Создаем временный регион для проверки пересечений
-        com.sk89q.worldedit.math.BlockVector3 min = com.sk89q.worldedit.math.BlockVector3.at(
-            Math.min(pos1.getBlockX(), pos2.getBlockX()),
-            Math.min(pos1.getBlockY(), pos2.getBlockY()),
-            Math.min(pos1.getBlockZ(), pos2.getBlockZ())
-        );
-        com.sk89q.worldedit.math.BlockVector3 max = com.sk89q.worldedit.math.BlockVector3.at(
-            Math.max(pos1.getBlockX(), pos2.getBlockX()),
-            Math.max(pos1.getBlockY(), pos2.getBlockY()),
-            Math.max(pos1.getBlockZ(), pos2.getBlockZ())
-        );
-        
-        ProtectedCuboidRegion tempRegion = new ProtectedCuboidRegion("temp", min, max);
-        
-        // Проверяем пересечение с каждым существующим регионом
-        for (ProtectedRegion existingRegion : regionManager.getRegions().values()) {
-            if (regionsOverlap(tempRegion, existingRegion)) {
-                return false; // Найдено пересечение
+    public List<String> getLiveOverlappingRegions(World world, BlockVector3 min, BlockVector3 max) {
+        List<String> overlappingRegions = new ArrayList<>();
+
+        try {
+            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
+                .getRegionContainer().get(BukkitAdapter.adapt(world));
+
+            if (regionManager == null) {
+                return overlappingRegions;
+            }
+
+            ProtectedCuboidRegion candidate = new ProtectedCuboidRegion("temp", min, max);
+            for (ProtectedRegion region : regionManager.getApplicableRegions(candidate)) {
+                if (region.getType() == RegionType.GLOBAL) {
+                    continue;
+                }
+                overlappingRegions.add(region.getId());
+                // Регион, которого индекс еще не видел, добавляется сразу
+                plugin.getSpatialIndex().update(world, region);
             }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Ошибка при проверке пересечения регионов: " + e.getMessage());
         }
-        
-        return true; // Пересечений нет
+
+        return overlappingRegions;
     }
-    
+
     /**
      * Получает список регионов, которые пересекаются с выделенной областью
      * 
@@ -556,13 +592,6 @@ public class RegionBetterManager {
                 return overlappingRegions;
             }
             
-            RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
-            RegionManager regions = container.get(BukkitAdapter.adapt(world));
-            
-            if (regions == null) {
-                return overlappingRegions;
-            }
-            
             // Convert Bukkit locations to WorldEdit BlockVector3
             BlockVector3 min = BlockVector3.at(
                 Math.min(pos1.getBlockX(), pos2.getBlockX()),
@@ -576,16 +605,8 @@ public class RegionBetterManager {
                 Math.max(pos1.getBlockZ(), pos2.getBlockZ())
             );
             
-            // Create temporary region for comparison
-            ProtectedCuboidRegion tempRegion = new ProtectedCuboidRegion("temp", min, max);
-            
-            // Check all existing regions for overlap
-            for (ProtectedRegion existingRegion : regions.getRegions().values()) {
-                // Check if regions overlap by comparing their bounds
-                if (regionsOverlap(tempRegion, existingRegion)) {
-                    overlappingRegions.add(existingRegion.getId());
-                }
-            }
+            // Only regions from the chunks touched by the selection are checked
+            overlappingRegions = plugin.getSpatialIndex().getOverlappingRegions(world, min, max);
             
         } catch (Exception e) {
             plugin.getLogger().severe("Ошибка при проверке пересечения регионов: " + e.getMessage());
@@ -594,88 +615,6 @@ public class RegionBetterManager {
         return overlappingRegions;
     }
 
-    /**
-     * Проверяет пересечение двух регионов (как в eRegions)
-     */
-    private boolean regionsOverlap(ProtectedCuboidRegion region1, ProtectedRegion region2) {
-        try {
-            // Get bounds of both regions
-            BlockVector3 min1 = region1.getMinimumPoint();
-            BlockVector3 max1 = region1.getMaximumPoint();
-            
-            BlockVector3 min2 = region2.getMinimumPoint();
-            BlockVector3 max2 = region2.getMaximumPoint();
-            
-            // Check if regions overlap in 3D space
-            // Two regions overlap if they overlap in all three dimensions (X, Y, Z)
-            boolean xOverlap = (min1.x() <= max2.x()) && (max1.x() >= min2.x());
-            boolean yOverlap = (min1.y() <= max2.y()) && (max1.y() >= min2.y());
-            boolean zOverlap = (min1.z() <= max2.z()) && (max1.z() >= min2.z());
-            
-            return xOverlap && yOverlap && zOverlap;
-            
-        } catch (Exception e) {
-            plugin.getLogger().severe("Ошибка при проверке пересечения регионов: " + e.getMessage());
-            return false;
-        }
-    }
-    
-    /**
-     * Получает максимальное количество блоков из прав LuckPerms
-     */
-    private int getMaxBlocksFromPermissions(Player player) {
-        int maxBlocks = 0;
-        
-        // Проверяем права от больших значений к меньшим
-        // regionbetter.selection.999999999999 - максимальное значение
-        for (int i = 999999999; i >= 10; i -= 1000) {
-            if (player.hasPermission("regionbetter.selection." + i)) {
-                maxBlocks = i;
-                break;
-            }
-        }
-        
-        // Если не найдено, проверяем стандартные значения
-        if (maxBlocks == 0) {
-            for (int i = 1000; i >= 10; i -= 10) {
-                if (player.hasPermission("regionbetter.selection." + i)) {
-                    maxBlocks = i;
-                    break;
-                }
-            }
-        }
-        
-        return maxBlocks;
-    }
-    
-    /**
-     * Получает максимальное количество регионов из прав LuckPerms
-     */
-    private int getMaxRegionsFromPermissions(Player player) {
-        int maxRegions = 0;
-        
-        // Проверяем права от больших значений к меньшим
-        // regionbetter.region.9999999 - максимальное значение
-        for (int i = 9999999; i >= 1000; i -= 1000) {
-            if (player.hasPermission("regionbetter.region." + i)) {
-                maxRegions = i;
-                break;
-            }
-        }
-        
-        // Если не найдено, проверяем стандартные значения
-        if (maxRegions == 0) {
-            for (int i = 100; i >= 1; i--) {
-                if (player.hasPermission("regionbetter.region." + i)) {
-                    maxRegions = i;
-                    break;
-                }
-            }
-        }
-        
-        return maxRegions;
-    }
-    
     /**
      * Add flag to region (как в eRegions)
      */
@@ -720,7 +659,10 @@ public class RegionBetterManager {
                         return false;
                     }
                 }
-                regions.save();
+                plugin.getViewRegionIndex().update(world, region);
+                plugin.getRegionTracker().invalidateRegions(world, region.getId());
+                plugin.getFlagRenderer().invalidate(world, region.getId());
+                plugin.getSaveScheduler().markDirty(world, regions);
                 return true;
             }
 
@@ -731,32 +673,6 @@ public class RegionBetterManager {
         return false;
     }
     
-    /**
-     * Получает все регионы в мире (для табуляции и других целей)
-     */
-    public List<String> getAllRegionsInWorld(World world) {
-        List<String> regions = new ArrayList<>();
-        
-        try {
-            // Прямой доступ к WorldGuard API
-            com.sk89q.worldguard.WorldGuard worldGuard = com.sk89q.worldguard.WorldGuard.getInstance();
-            com.sk89q.worldguard.protection.regions.RegionContainer container = worldGuard.getPlatform().getRegionContainer();
-            com.sk89q.worldguard.protection.managers.RegionManager regionManager = container.get(com.sk89q.worldedit.bukkit.BukkitAdapter.adapt(world));
-            
-            if (regionManager != null) {
-                // Получаем все регионы в мире
-                for (String regionName : regionManager.getRegions().keySet()) {
-                    regions.add(regionName);
-                }
-            }
-            
-        } catch (Exception e) {
-            plugin.getLogger().warning("Ошибка при получении списка регионов в мире: " + e.getMessage());
-        }
-        
-        return regions;
-    }
-    
     /**
      * Получает детальную информацию о регионе для команды info
      */
@@ -786,10 +702,13 @@ public class RegionBetterManager {
     public static class RegionDetailedInfo {
         private final com.sk89q.worldguard.protection.regions.ProtectedRegion region;
         private final Player player;
+        // Мир на момент команды: вывод может продолжиться после асинхронного разрешения имен
+        private final World world;
         
         public RegionDetailedInfo(com.sk89q.worldguard.protection.regions.ProtectedRegion region, Player player) {
             this.region = region;
             this.player = player;
+            this.world = player.getWorld();
         }
         
         public boolean isOwner() {
@@ -800,40 +719,30 @@ public class RegionBetterManager {
             return region.getMembers().contains(player.getUniqueId());
         }
         
+        /**
+         * UUID владельцев и участников, имена которых нужны для вывода
+         */
+        public java.util.Set<UUID> getPlayerIds() {
+            java.util.Set<UUID> ids = new java.util.HashSet<>(region.getOwners().getUniqueIds());
+            ids.addAll(region.getMembers().getUniqueIds());
+            return ids;
+        }
+        
+        /**
+         * Имена берутся только из кэша; перед вызовом их нужно разрешить через resolveNames
+         * Неразрешенные игроки выводятся по UUID
+         */
         public String getOwners() {
-            java.util.Set<String> ownerNames = new java.util.HashSet<>();
-            for (java.util.UUID uuid : region.getOwners().getUniqueIds()) {
-                String name = Bukkit.getOfflinePlayer(uuid).getName();
-                if (name != null) ownerNames.add(name);
-            }
-            return String.join(", ", ownerNames);
+            return String.join(", ", new java.util.LinkedHashSet<>(cachedNames(region.getOwners().getUniqueIds())));
         }
         
         public String getMembers() {
-            java.util.Set<String> memberNames = new java.util.HashSet<>();
-            for (java.util.UUID uuid : region.getMembers().getUniqueIds()) {
-                String name = Bukkit.getOfflinePlayer(uuid).getName();
-                if (name != null) memberNames.add(name);
-            }
-            return String.join(", ", memberNames);
+            return String.join(", ", new java.util.LinkedHashSet<>(cachedNames(region.getMembers().getUniqueIds())));
         }
         
         public String getFlags() {
-            java.util.List<String> flagList = new java.util.ArrayList<>();
-            var flagRegistry = com.sk89q.worldguard.WorldGuard.getInstance().getFlagRegistry();
-            
-            for (var flag : flagRegistry.getAll()) {
-                if (flag instanceof com.sk89q.worldguard.protection.flags.StateFlag) {
-                    var stateFlag = (com.sk89q.worldguard.protection.flags.StateFlag) flag;
-                    var state = region.getFlag(stateFlag);
-                    if (state != null) {
-                        String color = state.equals(com.sk89q.worldguard.protection.flags.StateFlag.State.ALLOW) ? "&a" : "&c";
-                        flagList.add(color + flag.getName() + "=" + state.toString().toLowerCase());
-                    }
-                }
-            }
-            
-            return String.join("&7, ", flagList);
+            // Только установленные на регионе флаги, с кэшем по региону
+            return RegionBetter.getInstance().getFlagRenderer().render(world, region);
         }
         
         public String getPos1() {
@@ -847,6 +756,19 @@ public class RegionBetterManager {
         }
     }
     
+    /**
+     * Имена игроков из кэша без обращения к Bukkit, вместо неизвестных имен - UUID
+     */
+    private static List<String> cachedNames(java.util.Set<UUID> ids) {
+        var nameCache = RegionBetter.getInstance().getNameCache();
+        List<String> names = new ArrayList<>(ids.size());
+        for (UUID uuid : ids) {
+            String name = nameCache.getCachedName(uuid);
+            names.add(name != null && !name.isEmpty() ? name : uuid.toString());
+        }
+        return names;
+    }
+    
     /**
      * Set region creator (как в eRegions)
      */
@@ -0,0 +1,200 @@
+package com.allfire.regionbetter.managers;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.allfire.regionbetter.config.ConfigSnapshot;
+import com.allfire.regionbetter.utils.ColorUtils;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Создание региона по названию из чата
+ * В асинхронном потоке чата выполняются только чистые проверки: формат названия и лимиты из снимка;
+ * чтение WorldGuard, триггеры и добавление региона - одной задачей в потоке, которому принадлежит игрок,
+ * сохранение - отложенно
+ */
+public class RegionCreationPipeline {
+
+    private final RegionBetter plugin;
+
+    // Игроки, чей запрос уже принят и ждет добавления в потоке игрока
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public RegionCreationPipeline(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Неизменяемый запрос на создание региона
+     */
+    private record CreationRequest(UUID uuid, String playerName, World world, String regionName,
+                                   BlockVector3 min, BlockVector3 max, long blocks) {}
+
+    /**
+     * Обрабатывает ввод названия региона (вызывается из асинхронного потока чата)
+     */
+    public void submit(Player player, String input) {
+        String regionName = input.trim();
+        ConfigSnapshot snapshot = plugin.getConfigManager().getSnapshot();
+
+        // Поддержка отмены - слова как в eRegions и команды из конфига
+        if (regionName.equalsIgnoreCase("cancel") || regionName.equalsIgnoreCase("no")
+            || snapshot.validation().cancelCommands().contains(regionName.toLowerCase())) {
+            runOnOwner(player, () -> {
+                plugin.getSelectionManager().clearPlayerStates(player);
+                trigger(player, "RegionCreateCancel");
+            }, null);
+            return;
+        }
+
+        // Проверка названия (только A-Za-z0-9_-)
+        if (!snapshot.validation().regionNamePattern().matcher(regionName).matches()) {
+            runOnOwner(player, () -> trigger(player, "RegionCreateInvalidName", regionName), null);
+            return;
+        }
+
+        // Копируем выделение, дальше работаем только с неизменяемыми данными
+        Location pos1 = plugin.getSelectionManager().getPos1(player);
+        Location pos2 = plugin.getSelectionManager().getPos2(player);
+        if (pos1 == null || pos2 == null || pos1.getWorld() == null) {
+            runOnOwner(player, () -> {
+                plugin.getSelectionManager().clearPlayerStates(player);
+                trigger(player, "RegionCreateNoSelection");
+            }, null);
+            return;
+        }
+
+        // Повторный ввод, пока предыдущий запрос еще не добавлен
+        if (!inFlight.add(player.getUniqueId())) {
+            return;
+        }
+
+        CreationRequest request = new CreationRequest(
+            player.getUniqueId(),
+            player.getName(),
+            pos1.getWorld(),
+            regionName,
+            BlockVector3.at(
+                Math.min(pos1.getBlockX(), pos2.getBlockX()),
+                Math.min(pos1.getBlockY(), pos2.getBlockY()),
+                Math.min(pos1.getBlockZ(), pos2.getBlockZ())
+            ),
+            BlockVector3.at(
+                Math.max(pos1.getBlockX(), pos2.getBlockX()),
+                Math.max(pos1.getBlockY(), pos2.getBlockY()),
+                Math.max(pos1.getBlockZ(), pos2.getBlockZ())
+            ),
+            plugin.getRegionManager().calculateSelectionBlocks(pos1, pos2)
+        );
+
+        // Лимиты из снимка проверяются сразу; если снимка еще нет, проверка выполнится при добавлении
+        LimitManager.PlayerLimits limits = plugin.getLimitManager().getCached(request.uuid());
+        boolean withinLimits = limits == null || checkLimits(request, limits);
+
+        runOnOwner(player, () -> {
+            try {
+                if (withinLimits) {
+                    commit(player, request);
+                } else {
+                    trigger(player, "RegionCreateError", request.regionName());
+                }
+            } finally {
+                inFlight.remove(request.uuid());
+            }
+        }, () -> inFlight.remove(request.uuid()));
+    }
+
+    /**
+     * Проверки WorldGuard и добавление региона в потоке игрока
+     */
+    private void commit(Player player, CreationRequest request) {
+        // Игрок отменил создание, пока запрос ждал своей очереди
+        if (!plugin.getSelectionManager().isWaitingForName(player)) {
+            return;
+        }
+
+        if (plugin.getLimitManager().getCached(request.uuid()) == null
+            && !checkLimits(request, plugin.getLimitManager().getLimits(player))) {
+            trigger(player, "RegionCreateError", request.regionName());
+            return;
+        }
+
+        if (regionExists(request)) {
+            trigger(player, "RegionCreateExists", request.regionName());
+            return;
+        }
+
+        // Пересечения проверяет R-дерево WorldGuard, которое видит регионы из /rg define сразу
+        List<String> overlapping = plugin.getRegionManager()
+            .getLiveOverlappingRegions(request.world(), request.min(), request.max());
+        if (!overlapping.isEmpty()) {
+            overlapError(player, overlapping);
+            return;
+        }
+
+        boolean success = plugin.getRegionManager().commitRegion(
+            player, request.world(), request.regionName(), request.min(), request.max()
+        );
+
+        if (success) {
+            // Успешное создание - очищаем все состояния игрока
+            plugin.getSelectionManager().removeWaitingForName(player);
+            plugin.getSelectionManager().clearPlayerStates(player);
+            trigger(player, "RegionCreateSuccess", request.regionName());
+        } else {
+            trigger(player, "RegionCreateError", request.regionName());
+        }
+    }
+
+    private boolean regionExists(CreationRequest request) {
+        try {
+            RegionManager regionManager = WorldGuard.getInstance().getPlatform()
+                .getRegionContainer().get(BukkitAdapter.adapt(request.world()));
+            return regionManager != null && regionManager.hasRegion(request.regionName());
+        } catch (Exception e) {
+            plugin.getLogger().severe("Ошибка при проверке существования региона: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean checkLimits(CreationRequest request, LimitManager.PlayerLimits limits) {
+        RegionBetterManager regionManager = plugin.getRegionManager();
+        return regionManager.checkMaxBlocks(request.playerName(), limits.maxBlocks(), request.blocks())
+            && regionManager.checkMaxRegions(request.world(), request.uuid(), request.playerName(), limits.maxRegions());
+    }
+
+    /**
+     * Сообщение о пересечении: триггер RegionCreateOverlap, если он задан, иначе ErrorMessages.RegionOverlap
+     */
+    private void overlapError(Player player, List<String> overlapping) {
+        String regions = String.join(", ", overlapping);
+        if (!plugin.getConfigManager().getSnapshot().trigger("RegionCreateOverlap").actions().isEmpty()) {
+            trigger(player, "RegionCreateOverlap", regions);
+            return;
+        }
+
+        String message = plugin.getConfigManager().getLanguageConfig().getString("ErrorMessages.RegionOverlap",
+            "&cSelected area overlaps with existing regions: &e" + regions + "&c!");
+        ColorUtils.sendColoredMessage(player, message);
+    }
+
+    private void trigger(Player player, String triggerName, String... placeholders) {
+        plugin.getCommandTrigger().executeCommandsWithDelay(player, triggerName, placeholders);
+    }
+
+    /**
+     * Выполняет действие в потоке, которому принадлежит игрок; retired - если игрок вышел раньше
+     */
+    private void runOnOwner(Player player, Runnable action, Runnable retired) {
+        player.getScheduler().run(plugin, task -> action.run(), retired);
+    }
+}
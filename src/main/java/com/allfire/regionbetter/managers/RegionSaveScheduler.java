@@ -0,0 +1,86 @@
+package com.allfire.regionbetter.managers;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отложенное сохранение регионов WorldGuard
+ * Изменения помечают мир как измененный, сохранение выполняется асинхронно не чаще раза в интервал
+ */
+public class RegionSaveScheduler {
+
+    private final RegionBetter plugin;
+
+    // Измененные миры: имя мира -> менеджер регионов
+    private final Map<String, RegionManager> dirtyWorlds = new ConcurrentHashMap<>();
+
+    private BukkitTask flushTask;
+
+    public RegionSaveScheduler(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Помечает регионы мира как измененные и планирует сохранение
+     */
+    public synchronized void markDirty(World world, RegionManager regionManager) {
+        if (regionManager == null) {
+            return;
+        }
+
+        dirtyWorlds.put(world.getName(), regionManager);
+
+        if (flushTask == null) {
+            long interval = Math.max(1L, plugin.getConfigManager().getConfig().getLong("Performance.SaveInterval", 5) * 20L);
+            flushTask = plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, this::flushScheduled, interval);
+        }
+    }
+
+    /**
+     * Сохраняет все измененные миры в текущем потоке (при выключении плагина)
+     */
+    public void flushNow() {
+        synchronized (this) {
+            if (flushTask != null) {
+                flushTask.cancel();
+                flushTask = null;
+            }
+        }
+        flush(false);
+    }
+
+    private void flushScheduled() {
+        synchronized (this) {
+            flushTask = null;
+        }
+        flush(true);
+    }
+
+    private void flush(boolean retry) {
+        for (String worldName : dirtyWorlds.keySet()) {
+            RegionManager regionManager = dirtyWorlds.remove(worldName);
+            if (regionManager == null) {
+                continue;
+            }
+
+            try {
+                // saveChanges записывает только измененные регионы, если хранилище это поддерживает
+                regionManager.saveChanges();
+                if (plugin.getConfigManager().isDebug()) {
+                    plugin.getLogger().info("Регионы мира " + worldName + " сохранены в WorldGuard");
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Ошибка при сохранении регионов мира " + worldName + ": " + e.getMessage());
+                if (retry) {
+                    // Повторим при следующем сохранении, если мир не изменили заново
+                    dirtyWorlds.putIfAbsent(worldName, regionManager);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,577 @@
+package com.allfire.regionbetter.managers;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.allfire.regionbetter.config.CommandTemplate;
+import com.allfire.regionbetter.config.ConfigSnapshot;
+import com.allfire.regionbetter.index.RegionSpatialIndex;
+import com.allfire.regionbetter.index.ViewRegionIndex;
+import com.allfire.regionbetter.utils.BlockKeys;
+import com.allfire.regionbetter.utils.PlayerThreads;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Tracks player entry/exit for regions with the regionbetter-view flag.
+ * Every flagged region containing the player is tracked, so in nested layouts
+ * only the regions actually entered or left fire their commands.
+ * Works either from PlayerMoveEvent or from a repeating task that samples
+ * player positions in fixed-size slices per tick.
+ */
+public class RegionTracker {
+
+    // Teleports are never swept (handleTeleport); longer jumps are skipped as a safety net
+    private static final int MAX_SWEEP_BLOCKS = 512;
+
+    // Minimum interval between view checks in event mode (2 ticks = 100ms)
+    private static final long CHECK_INTERVAL_TICKS = 2;
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    // Nested flagged regions tracked per player; deeper nesting keeps the highest priorities
+    private static final int MAX_TRACKED_REGIONS = 16;
+
+    private final RegionBetter plugin;
+
+    // Per-player tracking state, one record per UUID; with parallel world ticking
+    // several world threads update their own players concurrently
+    private final Map<UUID, TrackerState> states = new ConcurrentHashMap<>();
+
+    // Source of invalidation stamps: every stamp is new, so the owning thread never misses one
+    private final AtomicInteger invalidations = new AtomicInteger();
+
+    // Scheduler mode: players are processed round-robin, a slice per tick
+    private BukkitTask samplingTask;
+    private List<Player> samplingQueue = new ArrayList<>();
+    private int samplingCursor;
+    private volatile boolean schedulerMode;
+
+    public RegionTracker(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Tracking state of a single player, kept in primitive fields so the move path allocates nothing:
+     * block positions are packed with BlockKeys, times are server ticks, view regions are index numbers.
+     * View fields follow regionbetter-view regions for players passing the permission and cooldown gates;
+     * the slot holds the highest-priority region of any kind with its precomputed volume.
+     * Fields are written only by the thread that owns the player (the main thread on Paper,
+     * the player's world thread with parallel world ticking). Region changes on other threads only
+     * publish a new invalidation stamp (and drop a removed current region); the owning thread notices
+     * the stamp on its next check and resets the budgets itself, so no budget is written concurrently.
+     */
+    private static final class TrackerState {
+        // Flagged regions the player is inside, sorted by number; the next check fills
+        // the spare arrays and swaps them in, so the sets are never reallocated
+        private int[] regionNumbers = new int[MAX_TRACKED_REGIONS];
+        private String[] regionIds = new String[MAX_TRACKED_REGIONS];
+        private int regionCount;
+        private int[] spareNumbers = new int[MAX_TRACKED_REGIONS];
+        private String[] spareIds = new String[MAX_TRACKED_REGIONS];
+        private final ViewRegionIndex.ViewRegion[] found = new ViewRegionIndex.ViewRegion[MAX_TRACKED_REGIONS];
+        // Reusable buffers for sweeping the path between two checks
+        private final ViewRegionIndex.Sweep sweep = new ViewRegionIndex.Sweep();
+
+        private long lastCheckTick = NEVER;
+        private long lastExecutionTick = NEVER;
+        private UUID worldId;
+        private long block;
+        private boolean sampled;
+        // Blocks the player may still move before a flagged region boundary can be reached
+        private int safeBudget;
+
+        // Read by invalidateRegions on other threads
+        private volatile UUID slotWorldId;
+        private long slotBlock;
+        private boolean located;
+        // Read by placeholders on other threads
+        private volatile RegionSpatialIndex.Bounds currentRegion;
+        // Blocks the player may still move before the slot's highest-priority region can change
+        private int slotBudget;
+
+        // Latest stamp from invalidateRegions and the stamp the owning thread has applied
+        private volatile int invalidated;
+        private int applied;
+
+        private boolean isInside(int number) {
+            return Arrays.binarySearch(regionNumbers, 0, regionCount, number) >= 0;
+        }
+
+        // The previous set stays in the spare arrays until the next check
+        private boolean wasInside(int number, int previousCount) {
+            return Arrays.binarySearch(spareNumbers, 0, previousCount, number) >= 0;
+        }
+
+        /**
+         * Apply a pending invalidation: the player is located again and the view regions are re-checked
+         */
+        private void applyInvalidation() {
+            int stamp = invalidated;
+            if (stamp != applied) {
+                applied = stamp;
+                located = false;
+                slotBudget = 0;
+                safeBudget = 0;
+            }
+        }
+
+        /**
+         * Forget the view regions without firing exit commands (world change)
+         */
+        private void resetView() {
+            regionCount = 0;
+            lastCheckTick = NEVER;
+            lastExecutionTick = NEVER;
+            sampled = false;
+            safeBudget = 0;
+        }
+    }
+
+    /**
+     * Start tracking in the mode configured in RegionViewSettings.Tracker
+     */
+    public void start() {
+        stop();
+
+        String mode = plugin.getConfigManager().getSnapshot().view().trackerMode();
+        schedulerMode = "scheduler".equalsIgnoreCase(mode);
+        if (!schedulerMode) {
+            return;
+        }
+
+        samplingTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::sampleSlice, 1L, 1L);
+        if (plugin.getConfigManager().isDebug()) {
+            plugin.getLogger().info("Region tracker started in scheduler mode");
+        }
+    }
+
+    /**
+     * Stop the sampling task
+     */
+    public void stop() {
+        if (samplingTask != null) {
+            samplingTask.cancel();
+            samplingTask = null;
+        }
+        samplingQueue = new ArrayList<>();
+        samplingCursor = 0;
+    }
+
+    /**
+     * Restart after configuration reload
+     */
+    public void restart() {
+        start();
+    }
+
+    public boolean isSchedulerMode() {
+        return schedulerMode;
+    }
+
+    /**
+     * Handle PlayerMoveEvent (event mode)
+     */
+    public void handleMove(Player player, Location from, Location to) {
+        if (to == null || from == null) return;
+
+        TrackerState state = states.computeIfAbsent(player.getUniqueId(), uuid -> new TrackerState());
+        state.applyInvalidation();
+
+        boolean sameWorld = from.getWorld() == to.getWorld();
+        int moved = 0;
+        if (sameWorld) {
+            moved = Math.abs(to.getBlockX() - from.getBlockX())
+                + Math.abs(to.getBlockY() - from.getBlockY())
+                + Math.abs(to.getBlockZ() - from.getBlockZ());
+            if (state.slotBudget > 0) {
+                state.slotBudget -= moved;
+            }
+            if (state.safeBudget > 0) {
+                state.safeBudget -= moved;
+            }
+        }
+
+        // 🚀 OPTIMIZATION: No region boundary within the slot's safe radius - the current region can't change
+        if (!sameWorld || !state.located || (state.slotBudget <= 0 && moved > 0)) {
+            updateCurrentRegion(player, state, to.getWorld(), to.getBlockX(), to.getBlockY(), to.getBlockZ());
+        }
+
+        // 🚀 OPTIMIZATION: No flagged boundary within the safe radius of the last check - skip
+        if (sameWorld && state.safeBudget > 0) {
+            return;
+        }
+
+        if (!canTrack(player, state)) {
+            return;
+        }
+
+        // 🚀 OPTIMIZATION: Check world change at the beginning (like in WorldGuard)
+        if (!from.getWorld().equals(to.getWorld())) {
+            // Clear cache on world change
+            state.resetView();
+            return;
+        }
+
+        // Check if position changed significantly (minimum 1 block)
+        if (from.getBlockX() == to.getBlockX() &&
+            from.getBlockZ() == to.getBlockZ() &&
+            from.getBlockY() == to.getBlockY()) {
+            return; // Player hasn't moved significantly
+        }
+
+        // 🚀 OPTIMIZATION: Cache check tick (minimum 100ms between checks)
+        long tick = plugin.getCooldownService().getCurrentTick();
+        if (state.lastCheckTick != NEVER && tick - state.lastCheckTick < CHECK_INTERVAL_TICKS) {
+            return; // Checking too frequently, skip
+        }
+        state.lastCheckTick = tick;
+
+        checkPosition(player, state, to.getWorld(), to.getBlockX(), to.getBlockY(), to.getBlockZ());
+    }
+
+    /**
+     * Process one slice of players (scheduler mode)
+     */
+    private void sampleSlice() {
+        int budget = plugin.getConfigManager().getSnapshot().view().playersPerTick();
+
+        for (int processed = 0; processed < budget; processed++) {
+            if (samplingCursor >= samplingQueue.size()) {
+                // Start a new round with the current online players
+                samplingQueue = new ArrayList<>(plugin.getServer().getOnlinePlayers());
+                samplingCursor = 0;
+                if (samplingQueue.isEmpty() || processed > 0) {
+                    return; // Each player is sampled at most once per tick
+                }
+            }
+
+            Player player = samplingQueue.get(samplingCursor++);
+            if (player.isOnline()) {
+                // With parallel world ticking the player belongs to their world's thread
+                PlayerThreads.runOnOwner(plugin, player, () -> samplePlayer(player));
+            }
+        }
+    }
+
+    private void samplePlayer(Player player) {
+        try {
+            Location location = player.getLocation();
+            World world = location.getWorld();
+            int x = location.getBlockX();
+            int y = location.getBlockY();
+            int z = location.getBlockZ();
+
+            TrackerState state = states.computeIfAbsent(player.getUniqueId(), uuid -> new TrackerState());
+            state.applyInvalidation();
+
+            long block = BlockKeys.pack(x, y, z);
+            if (!state.located || !world.getUID().equals(state.slotWorldId)
+                || (state.slotBlock != block && BlockKeys.distance(block, state.slotBlock) >= state.slotBudget)) {
+                updateCurrentRegion(player, state, world, x, y, z);
+            }
+
+            if (!canTrack(player, state)) {
+                return;
+            }
+
+            if (state.sampled && !world.getUID().equals(state.worldId)) {
+                // Clear cache on world change
+                state.resetView();
+                return;
+            }
+
+            if (state.sampled && state.block == block) {
+                return; // Player hasn't moved since last sample
+            }
+
+            // 🚀 OPTIMIZATION: Still within the safe radius of the last check
+            if (state.safeBudget > 0 && BlockKeys.distance(block, state.block) < state.safeBudget) {
+                return;
+            }
+
+            checkPosition(player, state, world, x, y, z);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error checking region boundaries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Permission and cooldown gates shared by both modes
+     */
+    private boolean canTrack(Player player, TrackerState state) {
+        ConfigSnapshot.ViewSettings view = plugin.getConfigManager().getSnapshot().view();
+
+        // Check access permissions
+        if (view.checkPerms()) {
+            if (!player.hasPermission("regionbetter.region.view")) {
+                return false;
+            }
+        }
+
+        // Check cooldown
+        int cooldownTicks = view.cooldownTicks();
+        if (cooldownTicks > 0 && state.lastExecutionTick != NEVER
+            && plugin.getCooldownService().getCurrentTick() - state.lastExecutionTick < cooldownTicks) {
+            return false; // Cooldown still active
+        }
+        return true;
+    }
+
+    /**
+     * Resolve the flagged regions at the position and fire entry/exit commands for the ones gained or lost.
+     * Exits of the regions left go first, then regions crossed between the last checked position
+     * and this one fire their entry and exit in the order they were passed, so fast travel
+     * doesn't skip them, and entries of the regions entered go last.
+     */
+    private void checkPosition(Player player, TrackerState state, World world, int x, int y, int z) {
+        try {
+            // 🚀 OPTIMIZATION: Chunk-bucketed index holds only regions with regionbetter-view=allow -
+            // one table lookup plus a few AABB tests, results go to the player's reusable buffer
+            int found = plugin.getViewRegionIndex().getRegions(world, x, y, z, state.found);
+
+            long block = BlockKeys.pack(x, y, z);
+
+            int previousCount = replaceRegions(state, found);
+
+            // Exits go first: the default exit command clears all visualizations
+            // and must not undo the visualization of a region entered on the same check
+            fireExits(player, state, previousCount);
+
+            // Sweep the segment from the last checked position (same world, not a teleport)
+            if (state.sampled && world.getUID().equals(state.worldId)) {
+                int distance = BlockKeys.distance(block, state.block);
+                if (distance > 1 && distance <= MAX_SWEEP_BLOCKS) {
+                    int crossed = plugin.getViewRegionIndex().getCrossedRegions(world,
+                        BlockKeys.x(state.block), BlockKeys.y(state.block), BlockKeys.z(state.block), x, y, z, state.sweep);
+                    for (int i = 0; i < crossed; i++) {
+                        ViewRegionIndex.ViewRegion region = state.sweep.get(i);
+                        int number = region.getNumber();
+                        if (state.wasInside(number, previousCount) || state.isInside(number)) {
+                            continue; // Left or entered on this check - handled by the set difference
+                        }
+                        if (plugin.getConfigManager().isDebug()) {
+                            plugin.getLogger().info("Player " + player.getName() + " passed through region " + region.getId());
+                        }
+                        executeRegionViewCommands(player, region.getId());
+                        executeRegionExitCommands(player, region.getId());
+                        state.lastExecutionTick = plugin.getCooldownService().getCurrentTick();
+                    }
+                }
+            }
+
+            state.sampled = true;
+            state.worldId = world.getUID();
+            state.block = block;
+
+            fireEntries(player, state, previousCount);
+
+            // Distance to the nearest flagged boundary around this position
+            state.safeBudget = plugin.getViewRegionIndex().getSafeRadius(world, x, y, z);
+
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error checking region boundaries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the player's region set with the regions found by the last query.
+     * The previous set moves to the spare arrays until the next check; its size is returned.
+     */
+    private int replaceRegions(TrackerState state, int found) {
+        // Sort the found regions into the spare arrays (insertion sort, a handful of regions)
+        int[] numbers = state.spareNumbers;
+        String[] ids = state.spareIds;
+        for (int i = 0; i < found; i++) {
+            ViewRegionIndex.ViewRegion region = state.found[i];
+            state.found[i] = null;
+            int number = region.getNumber();
+            int j = i;
+            while (j > 0 && numbers[j - 1] > number) {
+                numbers[j] = numbers[j - 1];
+                ids[j] = ids[j - 1];
+                j--;
+            }
+            numbers[j] = number;
+            ids[j] = region.getId();
+        }
+
+        int previousCount = state.regionCount;
+        state.spareNumbers = state.regionNumbers;
+        state.spareIds = state.regionIds;
+        state.regionNumbers = numbers;
+        state.regionIds = ids;
+        state.regionCount = found;
+        return previousCount;
+    }
+
+    /**
+     * Fire exit commands for regions in the previous set but not in the current one.
+     * Both sets are sorted by region number, so the difference is a single merge pass.
+     */
+    private void fireExits(Player player, TrackerState state, int previousCount) {
+        int[] numbers = state.regionNumbers;
+        int[] previousNumbers = state.spareNumbers;
+        String[] previousIds = state.spareIds;
+        int count = state.regionCount;
+
+        for (int i = 0, j = 0; i < previousCount; i++) {
+            while (j < count && numbers[j] < previousNumbers[i]) {
+                j++;
+            }
+            if (j < count && numbers[j] == previousNumbers[i]) {
+                continue; // Still inside - don't execute commands (like in WorldGuard)
+            }
+            // EXIT: Player exited region with flag - execute exit commands
+            if (plugin.getConfigManager().isDebug()) {
+                plugin.getLogger().info("EXIT: Executing exit commands for region: " + previousIds[i]);
+            }
+            executeRegionExitCommands(player, previousIds[i]);
+            state.lastExecutionTick = plugin.getCooldownService().getCurrentTick();
+        }
+    }
+
+    /**
+     * Fire entry commands for regions in the current set but not in the previous one
+     */
+    private void fireEntries(Player player, TrackerState state, int previousCount) {
+        int[] numbers = state.regionNumbers;
+        String[] ids = state.regionIds;
+        int[] previousNumbers = state.spareNumbers;
+        int count = state.regionCount;
+
+        for (int i = 0, j = 0; i < count; i++) {
+            while (j < previousCount && previousNumbers[j] < numbers[i]) {
+                j++;
+            }
+            if (j < previousCount && previousNumbers[j] == numbers[i]) {
+                continue;
+            }
+            // ENTRY: Player entered region with flag - execute entry commands
+            if (plugin.getConfigManager().isDebug()) {
+                plugin.getLogger().info("ENTRY: Executing entry commands for region: " + ids[i]);
+            }
+            executeRegionViewCommands(player, ids[i]);
+            state.lastExecutionTick = plugin.getCooldownService().getCurrentTick();
+        }
+    }
+
+    /**
+     * Locate the highest-priority region at the position and the distance to the nearest region boundary
+     */
+    private void updateCurrentRegion(Player player, TrackerState state, World world, int x, int y, int z) {
+        state.located = true;
+        state.slotWorldId = world.getUID();
+        state.slotBlock = BlockKeys.pack(x, y, z);
+        state.slotBudget = plugin.getSpatialIndex().getSafeRadius(world, x, y, z);
+
+        RegionSpatialIndex.Bounds region = plugin.getSpatialIndex().getHighestRegion(world, x, y, z);
+        if (region != state.currentRegion) {
+            state.currentRegion = region;
+            // region_name/region_blocks changed for this player
+            plugin.getPlaceholderCache().invalidate(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Locate the player right away (on join, before any movement)
+     */
+    public void refreshCurrentRegion(Player player) {
+        TrackerState state = states.computeIfAbsent(player.getUniqueId(), uuid -> new TrackerState());
+        Location location = player.getLocation();
+        updateCurrentRegion(player, state, location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Teleports don't fire PlayerMoveEvent handlers, so the movement budget is unknown.
+     * The player didn't travel the path to the destination, so the next check is never swept.
+     */
+    public void handleTeleport(Player player) {
+        TrackerState state = states.get(player.getUniqueId());
+        if (state != null) {
+            state.safeBudget = 0;
+            state.sampled = false;
+            state.located = false;
+            state.slotBudget = 0;
+        }
+    }
+
+    /**
+     * Force players in the world to be located again after a region was added, removed or reflagged
+     * (regionId null: any region of the world may have changed).
+     * Safe from any thread: only the stamp and the placeholder region are written here.
+     */
+    public void invalidateRegions(World world, String regionId) {
+        UUID worldId = world.getUID();
+        int stamp = invalidations.incrementAndGet();
+        for (TrackerState state : states.values()) {
+            if (!worldId.equals(state.slotWorldId)) {
+                continue;
+            }
+            state.invalidated = stamp;
+            RegionSpatialIndex.Bounds region = state.currentRegion;
+            if (region != null && (regionId == null || region.getId().equals(regionId))) {
+                state.currentRegion = null;
+            }
+        }
+    }
+
+    /**
+     * Id of the region the player currently stands in, or null
+     */
+    public String getCurrentRegionId(UUID uuid) {
+        TrackerState state = states.get(uuid);
+        RegionSpatialIndex.Bounds region = state != null ? state.currentRegion : null;
+        return region != null ? region.getId() : null;
+    }
+
+    /**
+     * Volume of the region the player currently stands in, or 0
+     */
+    public long getCurrentRegionVolume(UUID uuid) {
+        TrackerState state = states.get(uuid);
+        RegionSpatialIndex.Bounds region = state != null ? state.currentRegion : null;
+        return region != null ? region.getVolume() : 0;
+    }
+
+    /**
+     * Clear tracking state of a player
+     */
+    public void clear(UUID uuid) {
+        states.remove(uuid);
+    }
+
+    /**
+     * Executes commands on region exit (RegionViewSettings.ExitCmds, precompiled in the config snapshot)
+     */
+    private void executeRegionExitCommands(Player player, String regionName) {
+        executeRegionCommands(player, plugin.getConfigManager().getSnapshot().view().exitCmds(), regionName, "exit");
+    }
+
+    /**
+     * Executes region highlighting commands (RegionViewSettings.Cmds, precompiled in the config snapshot)
+     */
+    private void executeRegionViewCommands(Player player, String regionName) {
+        executeRegionCommands(player, plugin.getConfigManager().getSnapshot().view().cmds(), regionName, "entry");
+    }
+
+    private void executeRegionCommands(Player player, List<CommandTemplate> commands, String regionName, String kind) {
+        if (plugin.getConfigManager().isDebug()) {
+            plugin.getLogger().info("Executing " + commands.size() + " " + kind + " commands for region " + regionName);
+        }
+        try {
+            plugin.getCommandTrigger().executeCommands(player, commands, new String[]{regionName});
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error executing region " + kind + " commands: " + e.getMessage(), e);
+        }
+    }
+}
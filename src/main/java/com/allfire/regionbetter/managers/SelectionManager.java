@@ -1,24 +1,24 @@
 package com.allfire.regionbetter.managers;
 
 import com.allfire.regionbetter.RegionBetter;
+import com.allfire.regionbetter.utils.BlockKeys;
 import com.allfire.regionbetter.utils.WorldEditUtils;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SelectionManager {
 
     private final RegionBetter plugin;
     private WorldEditUtils worldEditUtils;
-    private final Map<UUID, Location> pos1Map = new HashMap<>();
-    private final Map<UUID, Location> pos2Map = new HashMap<>();
 
-    // Система состояний для пошагового создания регионов
-    private final Map<Player, SelectionData> activeSelections = new HashMap<>();
-    private final Map<Player, SelectionData> waitingForName = new HashMap<>();
+    // Все состояние выделения игрока в одной записи; читается и из асинхронного потока чата
+    private final Map<UUID, PlayerState> states = new ConcurrentHashMap<>();
 
     public SelectionManager(RegionBetter plugin) {
         this.plugin = plugin;
@@ -34,40 +34,120 @@ public class SelectionManager {
 
     /**
      * Класс для отслеживания процесса создания региона
+     * Координаты точек хранятся в состоянии игрока, здесь только отметки шагов
      */
     public static class SelectionData {
-        private final Player player;
         private final String type;
         private final long startTime;
-        private Location pos1;
-        private Location pos2;
-        private boolean completed;
+        private volatile boolean pos1Set;
+        private volatile boolean pos2Set;
+        private volatile boolean completed;
 
-        public SelectionData(Player player, String type) {
-            this.player = player;
+        public SelectionData(String type) {
             this.type = type;
             this.startTime = System.currentTimeMillis();
             this.completed = false;
         }
 
         // Геттеры и сеттеры
-        public Player getPlayer() { return player; }
         public String getType() { return type; }
         public long getStartTime() { return startTime; }
-        public Location getPos1() { return pos1; }
-        public Location getPos2() { return pos2; }
+        public boolean hasPos1() { return pos1Set; }
+        public boolean hasPos2() { return pos2Set; }
         public boolean isCompleted() { return completed; }
 
-        public void setPos1(Location pos1) { this.pos1 = pos1; }
-        public void setPos2(Location pos2) { this.pos2 = pos2; }
+        public void markPos1() { this.pos1Set = true; }
+        public void markPos2() { this.pos2Set = true; }
         public void setCompleted(boolean completed) { this.completed = completed; }
     }
 
+    /**
+     * Состояние игрока: точки выделения блоками в одном мире и шаги создания региона
+     * Точки упакованы в long через BlockKeys
+     */
+    private static final class PlayerState {
+        private static final long NO_POS = Long.MIN_VALUE;
+
+        private UUID worldId;
+        private long pos1 = NO_POS;
+        private long pos2 = NO_POS;
+
+        private volatile SelectionData activeSelection;
+        private volatile SelectionData waitingForName;
+
+        synchronized void setPos1(UUID world, int x, int y, int z) {
+            if (!world.equals(worldId)) {
+                // Выделение всегда в одном мире: точка из другого мира сбрасывает вторую
+                worldId = world;
+                pos2 = NO_POS;
+            }
+            pos1 = BlockKeys.pack(x, y, z);
+        }
+
+        synchronized void setPos2(UUID world, int x, int y, int z) {
+            if (!world.equals(worldId)) {
+                worldId = world;
+                pos1 = NO_POS;
+            }
+            pos2 = BlockKeys.pack(x, y, z);
+        }
+
+        synchronized Location getPos1() {
+            return toLocation(pos1);
+        }
+
+        synchronized Location getPos2() {
+            return toLocation(pos2);
+        }
+
+        synchronized boolean hasSelection() {
+            return pos1 != NO_POS && pos2 != NO_POS;
+        }
+
+        synchronized int getSelectionBlocks() {
+            if (!hasSelection()) {
+                return 0;
+            }
+            int width = Math.abs(BlockKeys.x(pos1) - BlockKeys.x(pos2)) + 1;
+            int height = Math.abs(BlockKeys.y(pos1) - BlockKeys.y(pos2)) + 1;
+            int length = Math.abs(BlockKeys.z(pos1) - BlockKeys.z(pos2)) + 1;
+            return width * height * length;
+        }
+
+        synchronized String formatPos1() {
+            return format(pos1);
+        }
+
+        synchronized String formatPos2() {
+            return format(pos2);
+        }
+
+        private static String format(long pos) {
+            if (pos == NO_POS) {
+                return null;
+            }
+            return BlockKeys.x(pos) + ", " + BlockKeys.y(pos) + ", " + BlockKeys.z(pos);
+        }
+
+        private Location toLocation(long pos) {
+            if (pos == NO_POS || worldId == null) {
+                return null;
+            }
+            World world = Bukkit.getWorld(worldId);
+            return world != null ? new Location(world, BlockKeys.x(pos), BlockKeys.y(pos), BlockKeys.z(pos)) : null;
+        }
+    }
+
+    private PlayerState state(Player player) {
+        return states.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerState());
+    }
+
     /**
      * Устанавливает первую точку выделения
      */
     public void setPos1(Player player, Location location) {
-        pos1Map.put(player.getUniqueId(), location);
+        state(player).setPos1(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        plugin.getPlaceholderCache().invalidate(player.getUniqueId());
         
         // Также устанавливаем в WorldEdit для совместимости с SelectionVisualizer
         if (worldEditUtils != null) {
@@ -79,11 +159,13 @@ public class SelectionManager {
      * Устанавливает вторую точку выделения
      */
     public void setPos2(Player player, Location location) {
-        pos2Map.put(player.getUniqueId(), location);
+        PlayerState state = state(player);
+        state.setPos2(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        plugin.getPlaceholderCache().invalidate(player.getUniqueId());
         
         // Также устанавливаем в WorldEdit для совместимости с SelectionVisualizer
         if (worldEditUtils != null) {
-            Location pos1 = pos1Map.get(player.getUniqueId());
+            Location pos1 = state.getPos1();
             if (pos1 != null) {
                 worldEditUtils.setSelection(player, pos1, location);
             }
@@ -94,26 +176,25 @@ public class SelectionManager {
      * Получает первую точку выделения
      */
     public Location getPos1(Player player) {
-        return pos1Map.get(player.getUniqueId());
+        PlayerState state = states.get(player.getUniqueId());
+        return state != null ? state.getPos1() : null;
     }
 
     /**
      * Получает вторую точку выделения
      */
     public Location getPos2(Player player) {
-        return pos2Map.get(player.getUniqueId());
+        PlayerState state = states.get(player.getUniqueId());
+        return state != null ? state.getPos2() : null;
     }
 
     /**
      * Очищает выделение игрока
      */
     public void clearSelection(Player player) {
-        pos1Map.remove(player.getUniqueId());
-        pos2Map.remove(player.getUniqueId());
-        
-        // Очищаем состояния
-        activeSelections.remove(player);
-        waitingForName.remove(player);
+        // Точки и состояния создания хранятся в одной записи
+        states.remove(player.getUniqueId());
+        plugin.getPlaceholderCache().invalidate(player.getUniqueId());
         
         // Отключаем WorldEdit выделение
         if (worldEditUtils != null) {
@@ -125,14 +206,8 @@ public class SelectionManager {
      * Начать процесс выделения для игрока
      */
     public void startSelection(Player player, String type) {
-        // Убираем предыдущее активное выделение, если оно есть
-        if (hasActiveSelection(player)) {
-            activeSelections.remove(player);
-        }
-        
-        // Создаем данные выделения
-        SelectionData selectionData = new SelectionData(player, type);
-        activeSelections.put(player, selectionData);
+        // Создаем данные выделения, предыдущее активное выделение заменяется
+        state(player).activeSelection = new SelectionData(type);
         
         // Включаем WorldEdit выделение
         if (worldEditUtils != null) {
@@ -144,7 +219,8 @@ public class SelectionManager {
      * Завершить процесс выделения
      */
     public SelectionData completeSelection(Player player) {
-        SelectionData selectionData = activeSelections.get(player);
+        PlayerState state = states.get(player.getUniqueId());
+        SelectionData selectionData = state != null ? state.activeSelection : null;
         if (selectionData == null) {
             return null;
         }
@@ -152,15 +228,15 @@ public class SelectionManager {
         // Для команд select1/select2 завершаем сразу после установки одной точки
         if ("select1".equals(selectionData.getType()) || "select2".equals(selectionData.getType())) {
             selectionData.setCompleted(true);
-            activeSelections.remove(player); // Убираем из активных выделений
+            state.activeSelection = null; // Убираем из активных выделений
             return selectionData;
         }
         
         // Для команды create требуем обе точки
         if ("create".equals(selectionData.getType()) && 
-            selectionData.getPos1() != null && selectionData.getPos2() != null) {
+            selectionData.hasPos1() && selectionData.hasPos2()) {
             selectionData.setCompleted(true);
-            waitingForName.put(player, selectionData);
+            state.waitingForName = selectionData;
             
             // Вызываем триггер для завершения выделения
             plugin.getCommandTrigger().executeCommandsWithDelay(player, "RegionBetterComplete", new String[]{});
@@ -175,80 +251,74 @@ public class SelectionManager {
      * Проверить, есть ли активное выделение
      */
     public boolean hasActiveSelection(Player player) {
-        return activeSelections.containsKey(player);
+        return getActiveSelection(player) != null;
     }
     
     /**
      * Получить данные активного выделения
      */
     public SelectionData getActiveSelection(Player player) {
-        return activeSelections.get(player);
+        PlayerState state = states.get(player.getUniqueId());
+        return state != null ? state.activeSelection : null;
     }
     
     /**
      * Проверить, ждет ли игрок ввода названия
      */
     public boolean isWaitingForName(Player player) {
-        return waitingForName.containsKey(player);
+        return getWaitingForName(player) != null;
     }
     
     /**
      * Получить данные ожидающего игрока
      */
     public SelectionData getWaitingForName(Player player) {
-        return waitingForName.get(player);
+        PlayerState state = states.get(player.getUniqueId());
+        return state != null ? state.waitingForName : null;
     }
     
     /**
      * Удалить игрока из ожидания
      */
     public void removeWaitingForName(Player player) {
-        waitingForName.remove(player);
+        PlayerState state = states.get(player.getUniqueId());
+        if (state != null) {
+            state.waitingForName = null;
+        }
     }
     
     /**
      * Установить игрока в ожидание названия
      */
     public void setWaitingForName(Player player, SelectionData selectionData) {
-        waitingForName.put(player, selectionData);
+        state(player).waitingForName = selectionData;
     }
     
     /**
-     * Очистить все состояния игрока
+     * Очистить все состояния игрока (после создания, отмены и при выходе)
      */
     public void clearPlayerStates(Player player) {
-        activeSelections.remove(player);
-        waitingForName.remove(player);
-        pos1Map.remove(player.getUniqueId());
-        pos2Map.remove(player.getUniqueId());
+        states.remove(player.getUniqueId());
+        plugin.getPlaceholderCache().invalidate(player.getUniqueId());
+        
+        // Отменяем отложенные действия триггеров игрока
+        plugin.getTriggerTimeline().cancel(player.getUniqueId());
     }
 
     /**
      * Проверяет, есть ли у игрока выделение
      */
     public boolean hasSelection(Player player) {
-        return pos1Map.containsKey(player.getUniqueId()) && pos2Map.containsKey(player.getUniqueId());
+        PlayerState state = states.get(player.getUniqueId());
+        return state != null && state.hasSelection();
     }
 
     /**
      * Получает количество блоков в выделении
      */
     public int getSelectionBlocks(Player player) {
-        Location pos1 = getPos1(player);
-        Location pos2 = getPos2(player);
-        
-        if (pos1 == null || pos2 == null) {
-            return 0;
-        }
-
-        int minX = Math.min(pos1.getBlockX(), pos2.getBlockX());
-        int maxX = Math.max(pos1.getBlockX(), pos2.getBlockX());
-        int minY = Math.min(pos1.getBlockY(), pos2.getBlockY());
-        int maxY = Math.max(pos1.getBlockY(), pos2.getBlockY());
-        int minZ = Math.min(pos1.getBlockZ(), pos2.getBlockZ());
-        int maxZ = Math.max(pos1.getBlockZ(), pos2.getBlockZ());
-
-        return (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        PlayerState state = states.get(player.getUniqueId());
+        return state != null ? state.getSelectionBlocks() : 0;
     }
 
     /**
@@ -359,22 +429,24 @@ public class SelectionManager {
      * Получает строковое представление первой точки
      */
     public String getPos1String(Player player) {
-        Location pos1 = getPos1(player);
-        if (pos1 == null) {
+        PlayerState state = states.get(player.getUniqueId());
+        String position = state != null ? state.formatPos1() : null;
+        if (position == null) {
             return plugin.getConfigManager().getLanguageConfig().getString("InfoMessages.PositionNotSet", "&7Не установлена");
         }
-        return pos1.getBlockX() + ", " + pos1.getBlockY() + ", " + pos1.getBlockZ();
+        return position;
     }
 
     /**
      * Получает строковое представление второй точки
      */
     public String getPos2String(Player player) {
-        Location pos2 = getPos2(player);
-        if (pos2 == null) {
+        PlayerState state = states.get(player.getUniqueId());
+        String position = state != null ? state.formatPos2() : null;
+        if (position == null) {
             return plugin.getConfigManager().getLanguageConfig().getString("InfoMessages.PositionNotSet", "&7Не установлена");
         }
-        return pos2.getBlockX() + ", " + pos2.getBlockY() + ", " + pos2.getBlockZ();
+        return position;
     }
 
     // ========== СИСТЕМА СОСТОЯНИЙ ДЛЯ ПОШАГОВОГО СОЗДАНИЯ ==========
@@ -384,24 +456,24 @@ public class SelectionManager {
      * Обрабатывает клик для выбора точки в активном выделении
      */
     public void handleSelectionClick(Player player, Location clickedLocation) {
-        if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+        if (plugin.getConfigManager().isDebug()) {
             plugin.getLogger().info("[DEBUG] handleSelectionClick вызван для игрока " + player.getName() + " в " + clickedLocation);
         }
         
         if (!hasActiveSelection(player)) {
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] У игрока " + player.getName() + " нет активного выделения");
             }
             return;
         }
 
         SelectionData selectionData = getActiveSelection(player);
-        if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+        if (plugin.getConfigManager().isDebug()) {
             plugin.getLogger().info("[DEBUG] Тип выделения для игрока " + player.getName() + ": " + selectionData.getType());
         }
         
         if (selectionData.isCompleted()) {
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] Выделение для игрока " + player.getName() + " уже завершено");
             }
             return;
@@ -409,48 +481,48 @@ public class SelectionManager {
 
         if ("select2".equals(selectionData.getType())) {
             // Для select2 устанавливаем вторую точку
-            selectionData.setPos2(clickedLocation);
-            setPos2(player, clickedLocation); // Обновляем также старые pos1/pos2 карты
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            selectionData.markPos2();
+            setPos2(player, clickedLocation);
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] Выполняем RegionSelect2Complete для игрока " + player.getName());
             }
             plugin.getCommandTrigger().executeCommandsWithDelay(player, "RegionSelect2Complete", new String[]{});
             // Выполняем CMI команду для второй точки
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] Выполняем RegionSelect2CMI для игрока " + player.getName());
             }
             plugin.getCommandTrigger().executeCommandsWithDelay(player, "RegionSelect2CMI", new String[]{});
             completeSelection(player);
-        } else if (selectionData.getPos1() == null) {
+        } else if (!selectionData.hasPos1()) {
             // Устанавливаем первую точку
-            selectionData.setPos1(clickedLocation);
-            setPos1(player, clickedLocation); // Обновляем также старые pos1/pos2 карты
+            selectionData.markPos1();
+            setPos1(player, clickedLocation);
             
             // Вызываем триггер для первой точки
             if ("create".equals(selectionData.getType())) {
-                if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                if (plugin.getConfigManager().isDebug()) {
                     plugin.getLogger().info("[DEBUG] Выполняем RegionSelect1Complete (create) для игрока " + player.getName());
                 }
                 plugin.getCommandTrigger().executeCommandsWithDelay(player, "RegionSelect1Complete", new String[]{});
             } else if ("select1".equals(selectionData.getType())) {
-                if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                if (plugin.getConfigManager().isDebug()) {
                     plugin.getLogger().info("[DEBUG] Выполняем RegionSelect1Complete (select1) для игрока " + player.getName());
                 }
                 plugin.getCommandTrigger().executeCommandsWithDelay(player, "RegionSelect1Complete", new String[]{});
                 // Выполняем CMI команду для первой точки
-                if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                if (plugin.getConfigManager().isDebug()) {
                     plugin.getLogger().info("[DEBUG] Выполняем RegionSelect1CMI для игрока " + player.getName());
                 }
                 plugin.getCommandTrigger().executeCommandsWithDelay(player, "RegionSelect1CMI", new String[]{});
             }
         } else {
             // Устанавливаем вторую точку и завершаем выделение
-            selectionData.setPos2(clickedLocation);
-            setPos2(player, clickedLocation); // Обновляем также старые pos1/pos2 карты
+            selectionData.markPos2();
+            setPos2(player, clickedLocation);
             
             // Вызываем триггер для второй точки
             if ("create".equals(selectionData.getType())) {
-                if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                if (plugin.getConfigManager().isDebug()) {
                     plugin.getLogger().info("[DEBUG] Выполняем RegionSelect2Complete (create) для игрока " + player.getName());
                 }
                 plugin.getCommandTrigger().executeCommandsWithDelay(player, "RegionSelect2Complete", new String[]{});
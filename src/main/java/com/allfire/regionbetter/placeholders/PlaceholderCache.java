@@ -0,0 +1,122 @@
+package com.allfire.regionbetter.placeholders;
+
+import com.allfire.regionbetter.RegionBetter;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш значений заполнителей по (игрок, ключ) с коротким TTL из секции PlaceholderCache
+ * TAB, меню и голограммы запрашивают одни и те же заполнители несколько раз за тик
+ * Изменения данных сбрасывают кэш явно, TTL ограничивает устаревание остального (позиция игрока)
+ */
+public class PlaceholderCache {
+
+    // Параметры приходят из конфигураций других плагинов, но на случай мусора размер ограничен
+    private static final int MAX_COMPILED_KEYS = 1024;
+
+    private final RegionBetter plugin;
+
+    // Строка параметра -> разобранный ключ
+    private final Map<String, PlaceholderKey> compiledKeys = new ConcurrentHashMap<>();
+
+    // Игрок -> его значения; сброс удаляет запись игрока целиком
+    private final Map<UUID, PlayerValues> values = new ConcurrentHashMap<>();
+
+    // Источник поколений: новая запись игрока никогда не совпадает с поколением удаленной
+    private final AtomicLong generations = new AtomicLong();
+
+    public PlaceholderCache(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    private record CachedValue(String value, long expiresAt) {}
+
+    /**
+     * Значения одного игрока; поколение отличает запись от записей, удаленных сбросом
+     */
+    private static final class PlayerValues {
+        private final long generation;
+        private final Map<PlaceholderKey, CachedValue> values = new ConcurrentHashMap<>();
+
+        private PlayerValues(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Разобранный ключ параметра, строка разбирается только при первом запросе
+     */
+    public PlaceholderKey compile(String params) {
+        PlaceholderKey key = compiledKeys.get(params);
+        if (key != null) {
+            return key;
+        }
+
+        key = PlaceholderKey.parse(params);
+        if (compiledKeys.size() < MAX_COMPILED_KEYS) {
+            compiledKeys.put(params, key);
+        }
+        return key;
+    }
+
+    /**
+     * Значение из кэша, null если его нет или TTL истек
+     */
+    public String get(UUID uuid, PlaceholderKey key) {
+        PlayerValues playerValues = values.get(uuid);
+        if (playerValues == null) {
+            return null;
+        }
+
+        CachedValue cached = playerValues.values.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= cached.expiresAt()) {
+            playerValues.values.remove(key, cached);
+            return null;
+        }
+        return cached.value();
+    }
+
+    /**
+     * Отметка поколения игрока, которую нужно взять до вычисления значения
+     */
+    public long stamp(UUID uuid) {
+        return values.computeIfAbsent(uuid, id -> new PlayerValues(generations.incrementAndGet())).generation;
+    }
+
+    /**
+     * Сохраняет значение, если с момента stamp(uuid) значения этого игрока не сбрасывались
+     */
+    public void put(UUID uuid, PlaceholderKey key, String value, long stamp) {
+        long ttl = plugin.getConfigManager().getSnapshot().placeholderCache().ttlMillis(key.type().getConfigName());
+        if (ttl <= 0 || value == null) {
+            return;
+        }
+
+        // Сброс во время вычисления удалил запись игрока - значение могло устареть
+        PlayerValues playerValues = values.get(uuid);
+        if (playerValues == null || playerValues.generation != stamp) {
+            return;
+        }
+        playerValues.values.put(key, new CachedValue(value, System.currentTimeMillis() + ttl));
+    }
+
+    /**
+     * Сбрасывает значения игрока (выделение, лимиты, текущий регион)
+     */
+    public void invalidate(UUID uuid) {
+        values.remove(uuid);
+    }
+
+    /**
+     * Сбрасывает значения всех игроков (изменение регионов, перезагрузка)
+     */
+    public void invalidateAll() {
+        values.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package com.allfire.regionbetter.placeholders;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Разобранный параметр заполнителя %regionbetter_...%
+ * Строка разбирается один раз, дальше запросы сравнивают готовый ключ
+ *
+ * @param type     вид заполнителя
+ * @param argument ключ формата для region_owned_v/region_membed_v
+ * @param index    индекс региона (с нуля) для region_owned_N/region_membed_N, -1 если неверный
+ */
+public record PlaceholderKey(Type type, String argument, int index) {
+
+    /**
+     * Вид заполнителя; имя используется как ключ TTL в секции PlaceholderCache
+     */
+    public enum Type {
+        REGION_OWNED_LIST("region_owned_v"),
+        REGION_MEMBED_LIST("region_membed_v"),
+        REGION_OWNED_AT("region_owned_n"),
+        REGION_MEMBED_AT("region_membed_n"),
+        REGION_NAME("region_name"),
+        REGION_BLOCKS("region_blocks"),
+        SELECTION_BLOCKS("selection_blocks"),
+        SELECTION_MAX("selection_max"),
+        REGION_OWNED("region_owned"),
+        REGION_MEMBED("region_membed"),
+        REGION_MAX("region_max"),
+        DISTANCE_OWNED("distance_owned"),
+        DISTANCE_OWNED_NAME("distance_owned_name"),
+        DISTANCE_MEMBED("distance_membed"),
+        DISTANCE_MEMBED_NAME("distance_membed_name"),
+        SHOP_REGIONS("shop_regions"),
+        SHOP_COST("shop_cost"),
+        SHOP_COST_SYMBOL("shop_cost_symbol"),
+        SHOP_START("shop_start"),
+        SHOP_END("shop_end"),
+        REGION_VIEW("region_view"),
+        SELECTION_POS1("selection_pos1"),
+        SELECTION_POS2("selection_pos2"),
+        UNKNOWN("unknown");
+
+        private static final Map<String, Type> BY_NAME = new HashMap<>();
+
+        static {
+            for (Type type : values()) {
+                BY_NAME.put(type.configName, type);
+            }
+        }
+
+        private final String configName;
+
+        Type(String configName) {
+            this.configName = configName;
+        }
+
+        public String getConfigName() {
+            return configName;
+        }
+    }
+
+    /**
+     * Разбирает параметр в том же порядке, в каком его проверяла цепочка startsWith
+     */
+    public static PlaceholderKey parse(String params) {
+        if (params.startsWith("region_owned_v")) {
+            return new PlaceholderKey(Type.REGION_OWNED_LIST, params, -1);
+        }
+        if (params.startsWith("region_membed_v")) {
+            return new PlaceholderKey(Type.REGION_MEMBED_LIST, params, -1);
+        }
+        if (params.startsWith("region_owned_")) {
+            return new PlaceholderKey(Type.REGION_OWNED_AT, null, parseIndex(params.substring("region_owned_".length())));
+        }
+        if (params.startsWith("region_membed_")) {
+            return new PlaceholderKey(Type.REGION_MEMBED_AT, null, parseIndex(params.substring("region_membed_".length())));
+        }
+
+        Type type = Type.BY_NAME.get(params);
+        return new PlaceholderKey(type != null ? type : Type.UNKNOWN, null, -1);
+    }
+
+    private static int parseIndex(String value) {
+        try {
+            return Math.max(-1, Integer.parseInt(value) - 1);
+        } catch (NumberFormatException e) {
+            return -1; // Неверный индекс
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.allfire.regionbetter.placeholders;
 
 import com.allfire.regionbetter.RegionBetter;
+import com.allfire.regionbetter.index.NearestRegionIndex;
 import com.allfire.regionbetter.managers.RegionBetterManager;
 import com.allfire.regionbetter.managers.SelectionManager;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
@@ -43,176 +44,147 @@ public class RegionBetterPlaceholders extends PlaceholderExpansion {
             return "";
         }
 
-        // Регионы игрока (owned)
-        if (params.startsWith("region_owned_v")) {
-            String version = params.substring("region_owned_v".length());
-            List<String> regions = plugin.getRegionManager().getPlayerRegions(player, true, false);
-            return String.join(getFormat("region_owned_v" + version), regions);
+        PlaceholderCache cache = plugin.getPlaceholderCache();
+        PlaceholderKey key = cache.compile(params);
+        if (key.type() == PlaceholderKey.Type.UNKNOWN) {
+            return null;
         }
 
-        // Регионы игрока (member)
-        if (params.startsWith("region_membed_v")) {
-            String version = params.substring("region_membed_v".length());
-            List<String> regions = plugin.getRegionManager().getPlayerRegions(player, false, true);
-            return String.join(getFormat("region_membed_v" + version), regions);
+        String cached = cache.get(player.getUniqueId(), key);
+        if (cached != null) {
+            return cached;
         }
 
-        // Отдельные регионы (owned)
-        if (params.startsWith("region_owned_")) {
-            String index = params.substring("region_owned_".length());
-            List<String> regions = plugin.getRegionManager().getPlayerRegions(player, true, false);
-            try {
-                int idx = Integer.parseInt(index) - 1;
-                if (idx >= 0 && idx < regions.size()) {
-                    return regions.get(idx);
-                }
-            } catch (NumberFormatException e) {
-                // Неверный индекс
-            }
-            return "";
-        }
+        long stamp = cache.stamp(player.getUniqueId());
+        String value = resolve(player, key);
+        cache.put(player.getUniqueId(), key, value, stamp);
+        return value;
+    }
 
-        // Отдельные регионы (member)
-        if (params.startsWith("region_membed_")) {
-            String index = params.substring("region_membed_".length());
-            List<String> regions = plugin.getRegionManager().getPlayerRegions(player, false, true);
-            try {
-                int idx = Integer.parseInt(index) - 1;
-                if (idx >= 0 && idx < regions.size()) {
-                    return regions.get(idx);
-                }
-            } catch (NumberFormatException e) {
-                // Неверный индекс
+    private String resolve(Player player, PlaceholderKey key) {
+        switch (key.type()) {
+            // Регионы игрока (owned)
+            case REGION_OWNED_LIST:
+                return String.join(getFormat(key.argument()), plugin.getRegionManager().getPlayerRegions(player, true, false));
+
+            // Регионы игрока (member)
+            case REGION_MEMBED_LIST:
+                return String.join(getFormat(key.argument()), plugin.getRegionManager().getPlayerRegions(player, false, true));
+
+            // Отдельные регионы (owned)
+            case REGION_OWNED_AT:
+                return getRegionAt(plugin.getRegionManager().getPlayerRegions(player, true, false), key.index());
+
+            // Отдельные регионы (member)
+            case REGION_MEMBED_AT:
+                return getRegionAt(plugin.getRegionManager().getPlayerRegions(player, false, true), key.index());
+
+            // Название текущего региона
+            case REGION_NAME: {
+                // Регион хранится в слоте трекера и обновляется при смене блока
+                String regionId = plugin.getRegionTracker().getCurrentRegionId(player.getUniqueId());
+                return regionId != null ? regionId : "";
             }
-            return "";
-        }
 
-        // Название текущего региона
-        if (params.equals("region_name")) {
-            // TODO: Реализовать получение региона в котором находится игрок
-            return "";
-        }
+            // Количество блоков в регионе
+            case REGION_BLOCKS:
+                // Объем посчитан заранее при индексации региона
+                return String.valueOf(plugin.getRegionTracker().getCurrentRegionVolume(player.getUniqueId()));
 
-        // Количество блоков в регионе
-        if (params.equals("region_blocks")) {
-            // TODO: Реализовать получение количества блоков в текущем регионе
-            return "0";
-        }
+            // Количество блоков в выделении
+            case SELECTION_BLOCKS:
+                return String.valueOf(plugin.getSelectionManager().getSelectionBlocks(player));
 
-        // Количество блоков в выделении
-        if (params.equals("selection_blocks")) {
-            return String.valueOf(plugin.getSelectionManager().getSelectionBlocks(player));
-        }
+            // Максимальное количество блоков в выделении
+            case SELECTION_MAX:
+                return getMaxBlocks(player);
 
-        // Максимальное количество блоков в выделении
-        if (params.equals("selection_max")) {
-            return getMaxBlocks(player);
-        }
+            // Количество регионов игрока (owned)
+            case REGION_OWNED:
+                return String.valueOf(plugin.getRegionManager().getPlayerRegions(player, true, false).size());
 
-        // Количество регионов игрока (owned)
-        if (params.equals("region_owned")) {
-            return String.valueOf(plugin.getRegionManager().getPlayerRegions(player, true, false).size());
-        }
+            // Количество регионов игрока (member)
+            case REGION_MEMBED:
+                return String.valueOf(plugin.getRegionManager().getPlayerRegions(player, false, true).size());
 
-        // Количество регионов игрока (member)
-        if (params.equals("region_membed")) {
-            return String.valueOf(plugin.getRegionManager().getPlayerRegions(player, false, true).size());
-        }
+            // Максимальное количество регионов
+            case REGION_MAX:
+                return getMaxRegions(player);
 
-        // Максимальное количество регионов
-        if (params.equals("region_max")) {
-            return getMaxRegions(player);
-        }
+            // Дистанция до ближайшего региона (owned)
+            case DISTANCE_OWNED: {
+                NearestRegionIndex.Nearest nearest = plugin.getNearestRegionIndex().findNearest(player, true);
+                return nearest != null ? plugin.getConfigManager().getSnapshot().distanceOwned().format(nearest.distance()) : "";
+            }
 
-        // Дистанция до ближайшего региона (owned)
-        if (params.equals("distance_owned")) {
-            // TODO: Реализовать расчет дистанции
-            return "0";
-        }
+            // Название ближайшего региона (owned)
+            case DISTANCE_OWNED_NAME: {
+                NearestRegionIndex.Nearest nearest = plugin.getNearestRegionIndex().findNearest(player, true);
+                return nearest != null ? nearest.regionId() : "";
+            }
 
-        // Название ближайшего региона (owned)
-        if (params.equals("distance_owned_name")) {
-            // TODO: Реализовать получение названия ближайшего региона
-            return "";
-        }
+            // Дистанция до ближайшего региона (member)
+            case DISTANCE_MEMBED: {
+                NearestRegionIndex.Nearest nearest = plugin.getNearestRegionIndex().findNearest(player, false);
+                return nearest != null ? plugin.getConfigManager().getSnapshot().distanceMembed().format(nearest.distance()) : "";
+            }
 
-        // Дистанция до ближайшего региона (member)
-        if (params.equals("distance_membed")) {
-            // TODO: Реализовать расчет дистанции
-            return "0";
-        }
+            // Название ближайшего региона (member)
+            case DISTANCE_MEMBED_NAME: {
+                NearestRegionIndex.Nearest nearest = plugin.getNearestRegionIndex().findNearest(player, false);
+                return nearest != null ? nearest.regionId() : "";
+            }
 
-        // Название ближайшего региона (member)
-        if (params.equals("distance_membed_name")) {
-            // TODO: Реализовать получение названия ближайшего региона
-            return "";
-        }
+            // Магазин регионов
+            case SHOP_REGIONS:
+                // TODO: Реализовать магазин регионов
+                return "";
 
-        // Магазин регионов
-        if (params.equals("shop_regions")) {
-            // TODO: Реализовать магазин регионов
-            return "";
-        }
+            case SHOP_COST:
+                // TODO: Реализовать стоимость региона
+                return "0";
 
-        if (params.equals("shop_cost")) {
-            // TODO: Реализовать стоимость региона
-            return "0";
-        }
+            case SHOP_COST_SYMBOL:
+                return plugin.getConfigManager().getSnapshot().shopSymbol();
 
-        if (params.equals("shop_cost_symbol")) {
-            return plugin.getConfigManager().getConfig().getString("RegionShop.Symbol", "$");
-        }
+            case SHOP_START:
+                // TODO: Реализовать время начала продажи
+                return "";
 
-        if (params.equals("shop_start")) {
-            // TODO: Реализовать время начала продажи
-            return "";
-        }
+            case SHOP_END:
+                // TODO: Реализовать время окончания продажи
+                return "";
 
-        if (params.equals("shop_end")) {
-            // TODO: Реализовать время окончания продажи
-            return "";
-        }
+            // Статус подсветки
+            case REGION_VIEW:
+                return String.valueOf(player.hasPermission("regionbetter.region.view"));
 
-        // Статус подсветки
-        if (params.equals("region_view")) {
-            return String.valueOf(player.hasPermission("regionbetter.region.view"));
-        }
+            // Координаты выделения
+            case SELECTION_POS1:
+                return plugin.getSelectionManager().getPos1String(player);
 
-        // Координаты выделения
-        if (params.equals("selection_pos1")) {
-            return plugin.getSelectionManager().getPos1String(player);
-        }
+            case SELECTION_POS2:
+                return plugin.getSelectionManager().getPos2String(player);
 
-        if (params.equals("selection_pos2")) {
-            return plugin.getSelectionManager().getPos2String(player);
+            default:
+                return null;
         }
+    }
 
-        return null;
+    private static String getRegionAt(List<String> regions, int index) {
+        return index >= 0 && index < regions.size() ? regions.get(index) : "";
     }
 
     private String getFormat(String key) {
-        return plugin.getConfigManager().getConfig().getString(key, ",");
+        return plugin.getConfigManager().getSnapshot().placeholderFormats().getOrDefault(key, ",");
     }
 
     private String getMaxBlocks(Player player) {
-        // Получаем максимальное количество блоков из прав LuckPerms
-        int maxBlocks = 0;
-        for (int i = 1; i <= 1000000; i++) {
-            if (player.hasPermission("regionbetter.selection." + i)) {
-                maxBlocks = i;
-            }
-        }
-        return String.valueOf(maxBlocks);
+        // Снимок лимитов обновляется при входе и смене прав, права здесь не проверяются
+        return String.valueOf(plugin.getLimitManager().getSnapshot(player.getUniqueId()).maxBlocks());
     }
 
     private String getMaxRegions(Player player) {
-        // Получаем максимальное количество регионов из прав LuckPerms
-        int maxRegions = 0;
-        for (int i = 1; i <= 10000; i++) {
-            if (player.hasPermission("regionbetter.region." + i)) {
-                maxRegions = i;
-            }
-        }
-        return String.valueOf(maxRegions);
+        return String.valueOf(plugin.getLimitManager().getSnapshot(player.getUniqueId()).maxRegions());
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.allfire.regionbetter.utils;
+
+/**
+ * Координаты блока, упакованные в long, как BlockPos в Minecraft (x и z по 26 бит, y 12 бит)
+ * Позволяет хранить позицию игрока в примитивном поле без Location и BlockVector3
+ */
+public final class BlockKeys {
+
+    private BlockKeys() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int x(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int y(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int z(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /**
+     * Манхэттенское расстояние между двумя упакованными блоками
+     */
+    public static int distance(long a, long b) {
+        return Math.abs(x(a) - x(b)) + Math.abs(y(a) - y(b)) + Math.abs(z(a) - z(b));
+    }
+}
@@ -0,0 +1,156 @@
+package com.allfire.regionbetter.utils;
+
+import com.allfire.regionbetter.RegionBetter;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Общее хранилище кулдаунов триггеров
+ * Время считается в тиках сервера, истекшие записи удаляются периодической очисткой
+ */
+public class CooldownService {
+
+    // Очистка истекших записей раз в минуту
+    private static final long SWEEP_INTERVAL = 20L * 60;
+
+    private final RegionBetter plugin;
+
+    // Имя триггера -> порядковый номер, номер используется как индекс в массиве игрока
+    private final Map<String, Integer> triggerIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTriggerId = new AtomicInteger();
+
+    // Игрок -> тик окончания кулдауна для каждого триггера
+    private final Map<UUID, PlayerCooldowns> players = new ConcurrentHashMap<>();
+
+    private volatile long currentTick;
+    private BukkitTask clockTask;
+
+    public CooldownService(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Запускает счетчик тиков и периодическую очистку
+     */
+    public void start() {
+        stop();
+        clockTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            long tick = ++currentTick;
+            if (tick % SWEEP_INTERVAL == 0) {
+                sweep();
+            }
+        }, 1L, 1L);
+    }
+
+    public void stop() {
+        if (clockTask != null) {
+            clockTask.cancel();
+            clockTask = null;
+        }
+    }
+
+    /**
+     * Номер текущего тика с запуска счетчика
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Номер триггера, постоянный до перезапуска плагина
+     */
+    public int triggerId(String triggerName) {
+        Integer id = triggerIds.get(triggerName);
+        if (id != null) {
+            return id;
+        }
+        return triggerIds.computeIfAbsent(triggerName, k -> nextTriggerId.getAndIncrement());
+    }
+
+    /**
+     * Проверяет кулдаун и, если он прошел, запускает новый
+     * Возвращает false, если триггер еще на кулдауне
+     */
+    public boolean tryAcquire(UUID uuid, String triggerName, int cooldownTicks) {
+        if (cooldownTicks <= 0) {
+            return true;
+        }
+
+        int id = triggerId(triggerName);
+        long now = currentTick;
+        // Без выделений: проверка под блокировкой записи игрока, а не внутри compute
+        while (true) {
+            PlayerCooldowns cooldowns = players.get(uuid);
+            if (cooldowns == null) {
+                cooldowns = players.computeIfAbsent(uuid, k -> new PlayerCooldowns());
+            }
+            synchronized (cooldowns) {
+                // Запись, удаленную очисткой, заменяет новая
+                if (!cooldowns.retired) {
+                    return cooldowns.tryAcquire(id, now, now + cooldownTicks);
+                }
+            }
+        }
+    }
+
+    /**
+     * Удаляет все кулдауны игрока (при выходе с сервера)
+     */
+    public void clear(UUID uuid) {
+        players.remove(uuid);
+    }
+
+    /**
+     * Удаляет игроков, у которых не осталось активных кулдаунов
+     */
+    public void sweep() {
+        long now = currentTick;
+        int removed = 0;
+
+        for (UUID uuid : players.keySet()) {
+            PlayerCooldowns remaining = players.computeIfPresent(uuid, (k, cooldowns) -> cooldowns.retireIfExpired(now) ? null : cooldowns);
+            if (remaining == null) {
+                removed++;
+            }
+        }
+
+        if (plugin.getConfigManager().isDebug() && removed > 0) {
+            plugin.getLogger().info("[DEBUG] Очищено истекших кулдаунов: " + removed + ", осталось: " + players.size());
+        }
+    }
+
+    /**
+     * Кулдауны одного игрока: индекс - номер триггера, значение - тик окончания
+     */
+    private static final class PlayerCooldowns {
+        private long[] expiresAt = new long[8];
+        // Запись удалена из карты очисткой, кулдауны в ней больше не ставятся
+        private boolean retired;
+
+        synchronized boolean tryAcquire(int id, long now, long expiry) {
+            if (id >= expiresAt.length) {
+                expiresAt = Arrays.copyOf(expiresAt, Math.max(id + 1, expiresAt.length * 2));
+            }
+            if (expiresAt[id] > now) {
+                return false;
+            }
+            expiresAt[id] = expiry;
+            return true;
+        }
+
+        synchronized boolean retireIfExpired(long now) {
+            for (long expiry : expiresAt) {
+                if (expiry > now) {
+                    return false;
+                }
+            }
+            retired = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.allfire.regionbetter.utils;
+
+import com.allfire.regionbetter.RegionBetter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченный кэш UUID <-> имя игрока
+ * Заполняется при входе игроков и периодически сохраняется в names.txt, промахи разрешаются асинхронно
+ */
+public class PlayerNameCache {
+
+    private static final String FILE_NAME = "names.txt";
+
+    // Неразрешенное имя запрашивается снова не раньше чем через минуту
+    private static final long UNRESOLVED_RETRY_MILLIS = 60_000L;
+
+    private final RegionBetter plugin;
+    private final int capacity;
+
+    // UUID -> имя в порядке последнего обращения
+    private final LinkedHashMap<UUID, String> names;
+
+    // Имя в нижнем регистре -> UUID
+    private final Map<String, UUID> uuids = new HashMap<>();
+
+    // UUID, имя которых не удалось разрешить -> время, до которого повторный запрос не нужен
+    private final Map<UUID, Long> unresolved = new HashMap<>();
+
+    // Есть изменения, не записанные в файл
+    private volatile boolean dirty;
+    private final Object fileLock = new Object();
+    private BukkitTask saveTask;
+
+    public PlayerNameCache(RegionBetter plugin) {
+        this.plugin = plugin;
+        this.capacity = Math.max(100, plugin.getConfigManager().getConfig().getInt("Performance.NameCacheSize", 10000));
+        this.names = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                uuids.remove(eldest.getValue().toLowerCase(), eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Запоминает имя игрока
+     */
+    public synchronized void put(UUID uuid, String name) {
+        if (name == null || name.isEmpty()) {
+            // Неизвестное имя не кэшируется, чтобы его можно было разрешить позже
+            if (unresolved.size() >= capacity) {
+                unresolved.clear();
+            }
+            unresolved.put(uuid, System.currentTimeMillis() + UNRESOLVED_RETRY_MILLIS);
+            return;
+        }
+
+        unresolved.remove(uuid);
+        String previous = names.put(uuid, name);
+        if (previous != null && !previous.equalsIgnoreCase(name)) {
+            uuids.remove(previous.toLowerCase(), uuid);
+        }
+        uuids.put(name.toLowerCase(), uuid);
+        if (!name.equals(previous)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Имя из кэша без обращения к Bukkit; null, если игрока нет в кэше
+     */
+    public synchronized String getCachedName(UUID uuid) {
+        return names.get(uuid);
+    }
+
+    /**
+     * UUID из кэша без обращения к Bukkit; null, если имени нет в кэше
+     */
+    public synchronized UUID getCachedUuid(String name) {
+        return uuids.get(name.toLowerCase());
+    }
+
+    /**
+     * Разрешает имена игроков и вызывает callback в основном потоке
+     * Если все имена в кэше, callback вызывается сразу
+     */
+    public void resolveNames(Collection<UUID> ids, Runnable callback) {
+        List<UUID> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (UUID uuid : ids) {
+                if (names.containsKey(uuid)) {
+                    continue;
+                }
+                Long retryAt = unresolved.get(uuid);
+                if (retryAt == null || now >= retryAt) {
+                    missing.add(uuid);
+                }
+            }
+        }
+
+        if (missing.isEmpty()) {
+            callback.run();
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            for (UUID uuid : missing) {
+                // Может обращаться к Mojang, поэтому только вне основного потока
+                put(uuid, Bukkit.getOfflinePlayer(uuid).getName());
+            }
+            Bukkit.getScheduler().runTask(plugin, callback);
+        });
+    }
+
+    /**
+     * Разрешает UUID игрока по имени и вызывает callback в основном потоке
+     */
+    public void resolveUuid(String name, Consumer<UUID> callback) {
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) {
+            put(online.getUniqueId(), online.getName());
+            callback.accept(online.getUniqueId());
+            return;
+        }
+
+        UUID cached = getCachedUuid(name);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            var offlinePlayer = Bukkit.getOfflinePlayer(name);
+            UUID uuid = offlinePlayer.getUniqueId();
+            put(uuid, offlinePlayer.getName() != null ? offlinePlayer.getName() : name);
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(uuid));
+        });
+    }
+
+    /**
+     * Загружает кэш из файла и добавляет игроков онлайн
+     */
+    public void load() {
+        File file = new File(plugin.getDataFolder(), FILE_NAME);
+        if (file.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf(' ');
+                    if (separator <= 0) {
+                        continue;
+                    }
+                    try {
+                        put(UUID.fromString(line.substring(0, separator)), line.substring(separator + 1));
+                    } catch (IllegalArgumentException e) {
+                        // Пропускаем поврежденную строку
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Не удалось загрузить кэш имен игроков: " + e.getMessage());
+            }
+            // Файл уже содержит загруженные имена
+            dirty = false;
+        }
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            put(player.getUniqueId(), player.getName());
+        }
+
+        if (plugin.getConfigManager().isDebug()) {
+            plugin.getLogger().info("Кэш имен игроков загружен: " + names.size() + " записей");
+        }
+    }
+
+    /**
+     * Запускает периодическое асинхронное сохранение (Performance.NameCacheSaveInterval)
+     */
+    public void startSaveTask() {
+        stopSaveTask();
+        long interval = plugin.getConfigManager().getConfig().getLong("Performance.NameCacheSaveInterval", 300) * 20L;
+        if (interval <= 0) {
+            return;
+        }
+        saveTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            if (dirty) {
+                save();
+            }
+        }, interval, interval);
+    }
+
+    public void stopSaveTask() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+    }
+
+    /**
+     * Сохраняет кэш в файл: строка "uuid имя", от старых записей к новым
+     */
+    public void save() {
+        // Периодическое сохранение и сохранение при выключении не пишут файл одновременно
+        synchronized (fileLock) {
+            writeFile();
+        }
+    }
+
+    private void writeFile() {
+        Map<UUID, String> copy;
+        synchronized (this) {
+            copy = new LinkedHashMap<>(names);
+            dirty = false;
+        }
+
+        File file = new File(plugin.getDataFolder(), FILE_NAME);
+        File temp = new File(plugin.getDataFolder(), FILE_NAME + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            for (Map.Entry<UUID, String> entry : copy.entrySet()) {
+                writer.write(entry.getKey().toString());
+                writer.write(' ');
+                writer.write(entry.getValue());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось сохранить кэш имен игроков: " + e.getMessage());
+            dirty = true;
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Не удалось сохранить кэш имен игроков: " + e.getMessage());
+            dirty = true;
+        }
+    }
+}
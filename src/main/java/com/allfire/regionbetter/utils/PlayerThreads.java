@@ -0,0 +1,27 @@
+package com.allfire.regionbetter.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Выполнение действий в потоке, которому принадлежит игрок
+ * На Paper это основной поток, при параллельном тике миров (SparklyPaper/Leaf) - поток мира игрока
+ */
+public final class PlayerThreads {
+
+    private PlayerThreads() {
+    }
+
+    /**
+     * Выполняет действие сразу, если текущий поток владеет игроком, иначе в следующем тике владельца
+     * Если игрок вышел до выполнения, действие отбрасывается
+     */
+    public static void runOnOwner(Plugin plugin, Player player, Runnable action) {
+        if (Bukkit.isOwnedByCurrentRegion(player)) {
+            action.run();
+            return;
+        }
+        player.getScheduler().run(plugin, task -> action.run(), null);
+    }
+}
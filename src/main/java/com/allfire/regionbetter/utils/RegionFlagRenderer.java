@@ -0,0 +1,115 @@
+package com.allfire.regionbetter.utils;
+
+import com.allfire.regionbetter.RegionBetter;
+import com.sk89q.worldguard.protection.flags.Flag;
+import com.sk89q.worldguard.protection.flags.StateFlag;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.World;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Вывод флагов региона для /region info
+ * Обходит только флаги, установленные на регионе, результат кэшируется по региону
+ */
+public class RegionFlagRenderer {
+
+    private final RegionBetter plugin;
+
+    // "мир:регион" -> флаги, по которым построен текст, и сам текст
+    private final Map<String, Rendered> cache = new ConcurrentHashMap<>();
+
+    public RegionFlagRenderer(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    private record Rendered(Map<Flag<?>, Object> flags, String text) {}
+
+    /**
+     * Строка флагов региона в формате из language.yml (FlagFormat)
+     */
+    public String render(World world, ProtectedRegion region) {
+        String key = key(world, region.getId());
+        Map<Flag<?>, Object> flags = region.getFlags();
+
+        // Флаги могли измениться в обход RegionBetter (/rg flag), поэтому сверяем набор
+        Rendered cached = cache.get(key);
+        if (cached != null && cached.flags().equals(flags)) {
+            return cached.text();
+        }
+
+        Map<Flag<?>, Object> copy = new HashMap<>(flags);
+        String text = format(copy);
+        cache.put(key, new Rendered(copy, text));
+        return text;
+    }
+
+    /**
+     * Сбрасывает кэш региона после изменения его флагов
+     */
+    public void invalidate(World world, String regionId) {
+        cache.remove(key(world, regionId));
+    }
+
+    /**
+     * Сбрасывает весь кэш (после перезагрузки языкового файла)
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private String format(Map<Flag<?>, Object> flags) {
+        FileConfiguration language = plugin.getConfigManager().getLanguageConfig();
+        String allowFormat = language.getString("FlagFormat.Allow", "&a{flag}=allow");
+        String denyFormat = language.getString("FlagFormat.Deny", "&c{flag}=deny");
+        String valueFormat = language.getString("FlagFormat.Value", "&e{flag}=&f{value}");
+        String separator = language.getString("FlagFormat.Separator", "&7, ");
+        String listSeparator = language.getString("FlagFormat.ListSeparator", ", ");
+
+        List<Map.Entry<Flag<?>, Object>> entries = new ArrayList<>(flags.entrySet());
+        entries.sort(Comparator.comparing(entry -> entry.getKey().getName()));
+
+        List<String> parts = new ArrayList<>(entries.size());
+        for (Map.Entry<Flag<?>, Object> entry : entries) {
+            String name = entry.getKey().getName();
+            Object value = entry.getValue();
+
+            if (value instanceof StateFlag.State state) {
+                parts.add((state == StateFlag.State.ALLOW ? allowFormat : denyFormat).replace("{flag}", name));
+            } else {
+                parts.add(valueFormat.replace("{flag}", name).replace("{value}", formatValue(value, listSeparator)));
+            }
+        }
+
+        return String.join(separator, parts);
+    }
+
+    private static String formatValue(Object value, String listSeparator) {
+        if (value instanceof Collection<?> collection) {
+            List<String> values = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                values.add(formatValue(element, listSeparator));
+            }
+            return String.join(listSeparator, values);
+        }
+        if (value instanceof com.sk89q.worldedit.util.Location location) {
+            return String.format(Locale.ROOT, "%.1f, %.1f, %.1f", location.getX(), location.getY(), location.getZ());
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name().toLowerCase(Locale.ROOT);
+        }
+        return String.valueOf(value);
+    }
+
+    private static String key(World world, String regionId) {
+        return world.getName() + ":" + regionId;
+    }
+}
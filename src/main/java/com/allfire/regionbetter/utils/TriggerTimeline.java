@@ -0,0 +1,78 @@
+package com.allfire.regionbetter.utils;
+
+import com.allfire.regionbetter.RegionBetter;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отложенные действия триггеров игроков
+ * Вместо Thread.sleep действия ставятся в планировщик игрока со смещением в тиках,
+ * поэтому выполняются в потоке, которому принадлежит игрок (и при параллельном тике миров)
+ */
+public class TriggerTimeline {
+
+    private final RegionBetter plugin;
+
+    // Запланированные задачи игрока
+    private final Map<UUID, Set<ScheduledTask>> pending = new ConcurrentHashMap<>();
+
+    public TriggerTimeline(RegionBetter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Планирует действие игрока через delayTicks тиков (не меньше одного)
+     * Если игрок выйдет раньше, действие отбрасывается
+     */
+    public void schedule(Player player, long delayTicks, Runnable action) {
+        UUID uuid = player.getUniqueId();
+
+        ScheduledTask task = player.getScheduler().runDelayed(plugin, scheduled -> {
+            forget(uuid, scheduled);
+            action.run();
+        }, null, Math.max(1L, delayTicks));
+
+        if (task != null) {
+            pending.compute(uuid, (k, tasks) -> {
+                Set<ScheduledTask> result = tasks != null ? tasks : new HashSet<>();
+                result.add(task);
+                return result;
+            });
+        }
+    }
+
+    /**
+     * Убирает выполненную задачу; пустой набор удаляется, чтобы карта не росла с каждым игроком
+     * Наборы меняются только внутри compute, поэтому удаление пустого набора не теряет новые задачи
+     */
+    private void forget(UUID uuid, ScheduledTask task) {
+        pending.computeIfPresent(uuid, (k, tasks) -> {
+            tasks.remove(task);
+            return tasks.isEmpty() ? null : tasks;
+        });
+    }
+
+    /**
+     * Отменяет все еще не выполненные действия игрока
+     */
+    public void cancel(UUID uuid) {
+        Set<ScheduledTask> tasks = pending.remove(uuid);
+        if (tasks == null) {
+            return;
+        }
+
+        for (ScheduledTask task : tasks) {
+            task.cancel();
+        }
+
+        if (plugin.getConfigManager().isDebug() && !tasks.isEmpty()) {
+            plugin.getLogger().info("[DEBUG] Отменено отложенных действий: " + tasks.size() + " для " + uuid);
+        }
+    }
+}
@@ -35,7 +35,7 @@ public class WorldEditUtils {
      */
     public void enableSelection(Player player) {
         try {
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] WorldEditUtils.enableSelection called for player: " + player.getName());
             }
             
@@ -46,11 +46,11 @@ public class WorldEditUtils {
             
             // Clear any existing selection using command
             boolean result = Bukkit.dispatchCommand(player, "//sel");
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] WorldEdit selection clear result: " + result);
             }
             
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] WorldEdit selection enabled for player: " + player.getName());
             }
             
@@ -68,7 +68,7 @@ public class WorldEditUtils {
         try {
             // Clear selection using command
             boolean result = Bukkit.dispatchCommand(player, "//sel");
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] WorldEdit selection disabled for player: " + player.getName() + " (result: " + result + ")");
             }
             
@@ -86,7 +86,7 @@ public class WorldEditUtils {
      */
     public void setSelection(Player player, Location pos1, Location pos2) {
         try {
-            if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+            if (plugin.getConfigManager().isDebug()) {
                 plugin.getLogger().info("[DEBUG] WorldEditUtils.setSelection called for player: " + player.getName());
                 plugin.getLogger().info("[DEBUG] Pos1: " + pos1);
                 plugin.getLogger().info("[DEBUG] Pos2: " + pos2);
@@ -118,7 +118,7 @@ public class WorldEditUtils {
                 regionSelector.selectPrimary(wePos1, null);
                 regionSelector.selectSecondary(wePos2, null);
                 
-                if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                if (plugin.getConfigManager().isDebug()) {
                     plugin.getLogger().info("[DEBUG] WorldEdit API selection set successfully for player: " + player.getName());
                 }
                 
@@ -130,13 +130,13 @@ public class WorldEditUtils {
                     boolean result1 = Bukkit.dispatchCommand(player, pos1Cmd);
                     boolean result2 = Bukkit.dispatchCommand(player, pos2Cmd);
                     
-                    if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                    if (plugin.getConfigManager().isDebug()) {
                         plugin.getLogger().info("[DEBUG] WorldEdit command backup - pos1: " + result1 + ", pos2: " + result2);
                     }
                 }, 3L);
                 
             } catch (Exception apiException) {
-                if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                if (plugin.getConfigManager().isDebug()) {
                     plugin.getLogger().warning("[DEBUG] WorldEdit API failed, falling back to commands: " + apiException.getMessage());
                 }
                 
@@ -144,20 +144,20 @@ public class WorldEditUtils {
                 String pos1Cmd = "//pos1 " + pos1.getBlockX() + " " + pos1.getBlockY() + " " + pos1.getBlockZ();
                 String pos2Cmd = "//pos2 " + pos2.getBlockX() + " " + pos2.getBlockY() + " " + pos2.getBlockZ();
 
-                if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                if (plugin.getConfigManager().isDebug()) {
                     plugin.getLogger().info("[DEBUG] Executing WorldEdit commands: " + pos1Cmd + " and " + pos2Cmd);
                 }
 
                 Bukkit.getScheduler().runTaskLater(plugin, () -> {
                     boolean result1 = Bukkit.dispatchCommand(player, pos1Cmd);
-                    if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                    if (plugin.getConfigManager().isDebug()) {
                         plugin.getLogger().info("[DEBUG] WorldEdit pos1 result: " + result1);
                     }
                 }, 1L);
 
                 Bukkit.getScheduler().runTaskLater(plugin, () -> {
                     boolean result2 = Bukkit.dispatchCommand(player, pos2Cmd);
-                    if (plugin.getConfigManager().getConfig().getBoolean("Config.Debug", false)) {
+                    if (plugin.getConfigManager().isDebug()) {
                         plugin.getLogger().info("[DEBUG] WorldEdit pos2 result: " + result2);
                     }
                 }, 2L);
@@ -0,0 +1,107 @@
+package com.allfire.regionbetter.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ChunkTableTest {
+
+    @Test
+    void emptyTableFindsNothing() {
+        ChunkTable<String> table = new ChunkTable<>(Map.of());
+        assertNull(table.get(0));
+        assertNull(table.get(RegionGeometry.chunkKey(-1, -1)));
+    }
+
+    @Test
+    void findsEveryStoredChunk() {
+        Map<Long, String> buckets = new HashMap<>();
+        for (int cx = -40; cx <= 40; cx++) {
+            for (int cz = -40; cz <= 40; cz++) {
+                buckets.put(RegionGeometry.chunkKey(cx, cz), cx + ":" + cz);
+            }
+        }
+
+        ChunkTable<String> table = new ChunkTable<>(buckets);
+        for (Map.Entry<Long, String> entry : buckets.entrySet()) {
+            assertEquals(entry.getValue(), table.get(entry.getKey()));
+        }
+        assertNull(table.get(RegionGeometry.chunkKey(41, 0)));
+        assertNull(table.get(RegionGeometry.chunkKey(0, -41)));
+    }
+
+    @Test
+    void randomKeysMatchHashMap() {
+        Random random = new Random(11);
+        Map<Long, Integer> buckets = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            buckets.put(RegionGeometry.chunkKey(random.nextInt(4000) - 2000, random.nextInt(4000) - 2000), i);
+        }
+
+        ChunkTable<Integer> table = new ChunkTable<>(buckets);
+        for (int i = 0; i < 50_000; i++) {
+            long key = RegionGeometry.chunkKey(random.nextInt(4000) - 2000, random.nextInt(4000) - 2000);
+            assertEquals(buckets.get(key), table.get(key));
+        }
+    }
+
+    @Test
+    void tableIsDetachedFromSourceMap() {
+        Map<Long, String> buckets = new HashMap<>();
+        long key = RegionGeometry.chunkKey(3, 4);
+        buckets.put(key, "a");
+        ChunkTable<String> table = new ChunkTable<>(buckets);
+
+        buckets.put(key, "b");
+        buckets.put(RegionGeometry.chunkKey(5, 6), "c");
+        assertEquals("a", table.get(key));
+        assertNull(table.get(RegionGeometry.chunkKey(5, 6)));
+    }
+
+    @Test
+    void putReplacesAndRemoveHidesKey() {
+        ChunkTable<String> table = new ChunkTable<>(Map.of());
+        long key = RegionGeometry.chunkKey(-7, 12);
+
+        table.put(key, "a");
+        table.put(key, "b");
+        assertEquals("b", table.get(key));
+
+        table.remove(key);
+        assertNull(table.get(key));
+
+        table.put(key, "c");
+        assertEquals("c", table.get(key));
+    }
+
+    @Test
+    void incrementalUpdatesMatchHashMap() {
+        Random random = new Random(17);
+        Map<Long, Integer> expected = new HashMap<>();
+        ChunkTable<Integer> table = new ChunkTable<>(Map.of());
+
+        // Рост таблицы и удаленные ячейки на цепочках поиска
+        for (int i = 0; i < 20_000; i++) {
+            long key = RegionGeometry.chunkKey(random.nextInt(200) - 100, random.nextInt(200) - 100);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                table.remove(key);
+            } else {
+                expected.put(key, i);
+                table.put(key, i);
+            }
+        }
+
+        for (int cx = -100; cx < 100; cx++) {
+            for (int cz = -100; cz < 100; cz++) {
+                long key = RegionGeometry.chunkKey(cx, cz);
+                assertEquals(expected.get(key), table.get(key));
+            }
+        }
+    }
+}
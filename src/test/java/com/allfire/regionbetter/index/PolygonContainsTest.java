@@ -0,0 +1,68 @@
+package com.allfire.regionbetter.index;
+
+import com.sk89q.worldedit.math.BlockVector2;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * RegionGeometry.polygonContains должен совпадать с ProtectedPolygonalRegion.contains
+ */
+class PolygonContainsTest {
+
+    @Test
+    void concavePolygonMatchesWorldGuard() {
+        // Буква "П": вогнутость, горизонтальные и вертикальные ребра
+        assertMatches(List.of(
+            BlockVector2.at(0, 0), BlockVector2.at(30, 0), BlockVector2.at(30, 30),
+            BlockVector2.at(20, 30), BlockVector2.at(20, 10), BlockVector2.at(10, 10),
+            BlockVector2.at(10, 30), BlockVector2.at(0, 30)
+        ), -5, 35);
+    }
+
+    @Test
+    void slantedPolygonMatchesWorldGuard() {
+        assertMatches(List.of(
+            BlockVector2.at(-20, -3), BlockVector2.at(7, -25), BlockVector2.at(24, 4),
+            BlockVector2.at(3, 19), BlockVector2.at(-9, 8)
+        ), -30, 30);
+    }
+
+    @Test
+    void randomPolygonsMatchWorldGuard() {
+        Random random = new Random(5);
+        for (int n = 0; n < 200; n++) {
+            // Вершины по кругу со случайным радиусом - простой, часто вогнутый многоугольник
+            int count = 3 + random.nextInt(10);
+            List<BlockVector2> points = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                double angle = 2 * Math.PI * i / count;
+                double radius = 5 + random.nextInt(25);
+                points.add(BlockVector2.at((int) Math.round(Math.cos(angle) * radius), (int) Math.round(Math.sin(angle) * radius)));
+            }
+            assertMatches(points, -32, 32);
+        }
+    }
+
+    private static void assertMatches(List<BlockVector2> points, int from, int to) {
+        ProtectedPolygonalRegion region = new ProtectedPolygonalRegion("test", points, 0, 10);
+        int[] pointsX = new int[points.size()];
+        int[] pointsZ = new int[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            pointsX[i] = points.get(i).x();
+            pointsZ[i] = points.get(i).z();
+        }
+
+        for (int x = from; x <= to; x++) {
+            for (int z = from; z <= to; z++) {
+                assertEquals(region.contains(x, 5, z), RegionGeometry.polygonContains(pointsX, pointsZ, x, z),
+                    "point " + x + "," + z + " of " + points);
+            }
+        }
+    }
+}
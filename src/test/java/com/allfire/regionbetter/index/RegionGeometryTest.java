@@ -0,0 +1,80 @@
+package com.allfire.regionbetter.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RegionGeometryTest {
+
+    @Test
+    void chunkKeyRoundTrip() {
+        long key = RegionGeometry.chunkKey(-1875000, 1874999);
+        assertEquals(-1875000, RegionGeometry.chunkX(key));
+        assertEquals(1874999, RegionGeometry.chunkZ(key));
+    }
+
+    @Test
+    void sameChunkColumnReachesLastChunk() {
+        // Z остается в чанке 0, X проходит три чанка
+        assertChunks(walk(1, 1, 40, 5), 0, 0, 1, 0, 2, 0);
+        // X остается в чанке 0
+        assertChunks(walk(1, 1, 5, 20), 0, 0, 0, 1);
+    }
+
+    @Test
+    void axisAlignedSegments() {
+        assertChunks(walk(0, 0, 0, 40), 0, 0, 0, 1, 0, 2);
+        assertChunks(walk(0, 0, 40, 0), 0, 0, 1, 0, 2, 0);
+        assertChunks(walk(5, 5, -20, 5), 0, 0, -1, 0, -2, 0);
+        assertChunks(walk(5, -1, 5, -33), 0, -1, 0, -2, 0, -3);
+    }
+
+    @Test
+    void segmentInsideOneChunk() {
+        assertChunks(walk(1, 1, 14, 14), 0, 0);
+        assertChunks(walk(3, 3, 3, 3), 0, 0);
+    }
+
+    @Test
+    void randomSegmentsWalkNeighbourChunksFromStartToEnd() {
+        Random random = new Random(42);
+        for (int n = 0; n < 10000; n++) {
+            int x0 = random.nextInt(2000) - 1000, z0 = random.nextInt(2000) - 1000;
+            int x1 = x0 + random.nextInt(1025) - 512, z1 = z0 + random.nextInt(1025) - 512;
+            long[] chunks = walk(x0, z0, x1, z1);
+
+            assertEquals(RegionGeometry.chunkKey(x0 >> 4, z0 >> 4), chunks[0]);
+            assertEquals(RegionGeometry.chunkKey(x1 >> 4, z1 >> 4), chunks[chunks.length - 1]);
+            for (int i = 1; i < chunks.length; i++) {
+                int step = Math.abs(RegionGeometry.chunkX(chunks[i]) - RegionGeometry.chunkX(chunks[i - 1]))
+                    + Math.abs(RegionGeometry.chunkZ(chunks[i]) - RegionGeometry.chunkZ(chunks[i - 1]));
+                assertEquals(1, step, "segment " + x0 + "," + z0 + " -> " + x1 + "," + z1);
+            }
+        }
+    }
+
+    @Test
+    void reusedBufferKeepsOnlyCountChunks() {
+        long[] buffer = new long[64];
+        assertEquals(3, RegionGeometry.segmentChunks(0, 0, 40, 0, buffer));
+        assertEquals(1, RegionGeometry.segmentChunks(3, 3, 3, 3, buffer));
+        assertEquals(RegionGeometry.chunkKey(0, 0), buffer[0]);
+    }
+
+    private static long[] walk(int x0, int z0, int x1, int z1) {
+        long[] chunks = new long[RegionGeometry.segmentChunkCount(x0, z0, x1, z1)];
+        assertEquals(chunks.length, RegionGeometry.segmentChunks(x0, z0, x1, z1, chunks));
+        return chunks;
+    }
+
+    private static void assertChunks(long[] actual, int... coordinates) {
+        long[] expected = new long[coordinates.length / 2];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = RegionGeometry.chunkKey(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+        assertArrayEquals(expected, actual);
+    }
+}
@@ -0,0 +1,60 @@
+package com.allfire.regionbetter.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class BlockKeysTest {
+
+    @Test
+    void packRoundTripsWorldBorderAndBuildLimits() {
+        int[][] positions = {
+            {0, 0, 0},
+            {-1, -1, -1},
+            {29_999_999, 2047, -29_999_999},
+            {-29_999_999, -2048, 29_999_999},
+            {123, -64, -456},
+            {-33_554_431, 319, 33_554_431}
+        };
+        for (int[] position : positions) {
+            long key = BlockKeys.pack(position[0], position[1], position[2]);
+            assertEquals(position[0], BlockKeys.x(key));
+            assertEquals(position[1], BlockKeys.y(key));
+            assertEquals(position[2], BlockKeys.z(key));
+        }
+    }
+
+    @Test
+    void randomPositionsRoundTrip() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            int x = random.nextInt(60_000_000) - 30_000_000;
+            int y = random.nextInt(4096) - 2048;
+            int z = random.nextInt(60_000_000) - 30_000_000;
+            long key = BlockKeys.pack(x, y, z);
+            assertEquals(x, BlockKeys.x(key));
+            assertEquals(y, BlockKeys.y(key));
+            assertEquals(z, BlockKeys.z(key));
+        }
+    }
+
+    @Test
+    void neighbouringBlocksHaveDistinctKeys() {
+        long origin = BlockKeys.pack(10, 64, -10);
+        assertNotEquals(origin, BlockKeys.pack(11, 64, -10));
+        assertNotEquals(origin, BlockKeys.pack(10, 65, -10));
+        assertNotEquals(origin, BlockKeys.pack(10, 64, -9));
+    }
+
+    @Test
+    void distanceIsManhattan() {
+        long a = BlockKeys.pack(-5, 70, 3);
+        long b = BlockKeys.pack(4, 60, -3);
+        assertEquals(9 + 10 + 6, BlockKeys.distance(a, b));
+        assertEquals(BlockKeys.distance(a, b), BlockKeys.distance(b, a));
+        assertEquals(0, BlockKeys.distance(a, a));
+    }
+}